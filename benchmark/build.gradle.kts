@@ -0,0 +1,36 @@
+plugins {
+    java
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+
+    implementation(project(":dateMaskEngine"))
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+// Runs the whole suite with the GC profiler (bytes allocated per op) and writes
+// machine-readable results to build/reports/jmh/results.json.
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks of the date input path."
+    dependsOn(tasks.named("classes"))
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    doFirst { results.get().asFile.parentFile.mkdirs() }
+    args(
+        "-prof", "gc",
+        "-rf", "json",
+        "-rff", results.get().asFile.absolutePath
+    )
+    if (project.hasProperty("jmhInclude")) {
+        args(project.property("jmhInclude").toString())
+    }
+}
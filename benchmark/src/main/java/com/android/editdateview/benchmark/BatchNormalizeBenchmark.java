@@ -0,0 +1,76 @@
+package com.android.editdateview.benchmark;
+
+import com.android.editdateview.engine.DateMaskEngine;
+import com.android.editdateview.engine.DateNormalizer;
+import com.android.editdateview.engine.PackedDate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link DateNormalizer} on packed ints and on strings, sequential and parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchNormalizeBenchmark {
+
+    @Param({"1000000"})
+    public int count;
+
+    private int[] packed;
+    private CharSequence[] strings;
+    private int[] result;
+
+    @Setup
+    public void setUp() {
+        packed = new int[count];
+        strings = new CharSequence[count];
+        result = new int[count];
+        for (int i = 0; i < count; i++) {
+            int year = 1900 + i % 300;
+            int month = i % 15;
+            int day = i % 35;
+            packed[i] = PackedDate.of(year, month, day);
+            strings[i] = String.format("%02d.%02d.%04d", day, month, year);
+        }
+    }
+
+    @Benchmark
+    public int[] packedSequential() {
+        DateNormalizer.normalize(packed, 0, result, 0, count);
+        return result;
+    }
+
+    @Benchmark
+    public int[] packedParallel() {
+        DateNormalizer.normalizeParallel(packed, result);
+        return result;
+    }
+
+    @Benchmark
+    public int[] stringsSequential() {
+        DateNormalizer.normalize(strings, 0, DateMaskEngine.FORMAT_DMY, result, 0, count);
+        return result;
+    }
+
+    @Benchmark
+    public int[] stringsParallel() {
+        DateNormalizer.normalizeParallel(strings, DateMaskEngine.FORMAT_DMY, result);
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package com.android.editdateview.benchmark;
+
+import com.android.editdateview.engine.DateMaskEngine;
+import com.android.editdateview.engine.DateParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-event paths of the date input in all three view formats.
+ * <p>
+ * The benchmarks drive {@link DateMaskEngine} the same way {@code EditDateView} does from its
+ * input filter and text watcher. Run with {@code ./gradlew :benchmark:jmh}; the GC profiler
+ * reports bytes allocated per op as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateInputBenchmark {
+
+    private static final int DIGITS = 8;
+    private static final int SEPARATORS = 3;
+
+    @Param({"0", "1", "2"})
+    public int format;
+
+    private final DateMaskEngine engine = new DateMaskEngine();
+    private final char[] iso = new char[10];
+    private String digits;
+    private String pasted;
+    private String compact;
+    private int[] separatorPositions;
+
+    @Setup
+    public void setUp() {
+        switch (format) {
+            case DateMaskEngine.FORMAT_YMD -> {
+                engine.configure(format, DateMaskEngine.SEPARATOR_DASH);
+                digits = "20241231";
+                pasted = "2024-12-31";
+                compact = "20241231";
+                separatorPositions = new int[]{4, 7, 10};
+            }
+            case DateMaskEngine.FORMAT_MDY -> {
+                engine.configure(format, DateMaskEngine.SEPARATOR_SLASH);
+                digits = "12312024";
+                pasted = "12/31/2024";
+                compact = "12312024";
+                separatorPositions = new int[]{2, 5, 10};
+            }
+            default -> {
+                engine.configure(format, DateMaskEngine.SEPARATOR_DOT);
+                digits = "31122024";
+                pasted = "31.12.2024";
+                compact = "31122024";
+                separatorPositions = new int[]{2, 5, 10};
+            }
+        }
+    }
+
+    /**
+     * One typed digit, averaged over a full date (segment completion included).
+     */
+    @Benchmark
+    @OperationsPerInvocation(DIGITS)
+    public int digitInput() {
+        engine.reset();
+        int caret = 0;
+        for (int i = 0; i < DIGITS; i++) {
+            caret = engine.inputDigit(caret, digits.charAt(i));
+        }
+        return caret;
+    }
+
+    /**
+     * One typed separator, averaged over the three segments.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SEPARATORS)
+    public int separatorInput() {
+        engine.reset();
+        int caret = 0;
+        for (int i = 0; i < SEPARATORS; i++) {
+            caret = engine.inputSeparator(separatorPositions[i]);
+        }
+        return caret;
+    }
+
+    /**
+     * Deletes the last two segments of a pasted date (the paste restores the buffer).
+     */
+    @Benchmark
+    public boolean deletion() {
+        engine.paste(pasted);
+        return engine.delete(3, 7);
+    }
+
+    @Benchmark
+    public int paste() {
+        return engine.paste(pasted);
+    }
+
+    @Benchmark
+    public int parse() {
+        return DateParser.parse(pasted, format);
+    }
+
+    @Benchmark
+    public int parseCompact() {
+        return DateParser.parse(compact, format);
+    }
+
+    @Benchmark
+    public int setDateStr() {
+        engine.reset();
+        return engine.setDateString("2024-12-31");
+    }
+
+    @Benchmark
+    public void getDateAsString(Blackhole blackhole) {
+        engine.setDate(31, 12, 2024);
+        blackhole.consume(engine.getDateIso());
+    }
+
+    @Benchmark
+    public int getDateAsChars() {
+        engine.setDate(31, 12, 2024);
+        return engine.getDateIso(iso, 0);
+    }
+}
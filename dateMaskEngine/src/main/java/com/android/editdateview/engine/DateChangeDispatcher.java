@@ -0,0 +1,171 @@
+package com.android.editdateview.engine;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of date change subscribers.
+ * <p>
+ * Subscribers are kept in a copy-on-write array: dispatch iterates a snapshot without locking or
+ * allocating, and subscribers may be added or removed at any time, also from inside a callback.
+ * A subscriber with an {@link Executor} is called on that executor with conflated delivery: while
+ * a delivery is queued, newer dates only replace the queued value, so a slow consumer gets the
+ * latest date instead of a backlog. Without an executor the subscriber is called directly on the
+ * dispatching thread.
+ */
+public final class DateChangeDispatcher {
+
+    private static final Subscription[] EMPTY = new Subscription[0];
+
+    private volatile Subscription[] subscriptions = EMPTY;
+
+    public interface Listener {
+        void onChange(int day, int month, int year);
+    }
+
+    public Subscription add(Listener listener) {
+        return add(listener, null);
+    }
+
+    /**
+     * @param executor executor to deliver on, null to deliver on the dispatching thread
+     */
+    public Subscription add(Listener listener, Executor executor) {
+        return add(new Subscription(this, listener, executor, false));
+    }
+
+    /**
+     * Like {@link #add(Listener, Executor)}, but the listener is only weakly referenced and is
+     * removed once it has been garbage collected.
+     */
+    public Subscription addWeak(Listener listener, Executor executor) {
+        return add(new Subscription(this, listener, executor, true));
+    }
+
+    /**
+     * Removes every subscription of {@code listener}.
+     *
+     * @return true if a subscription was removed
+     */
+    public synchronized boolean remove(Listener listener) {
+        boolean removed = false;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.getListener() == listener) {
+                removed |= remove(subscription);
+            }
+        }
+        return removed;
+    }
+
+    public synchronized boolean remove(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                subscription.cancelled = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        for (Subscription subscription : subscriptions) {
+            subscription.cancelled = true;
+        }
+        subscriptions = EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return subscriptions.length == 0;
+    }
+
+    public int size() {
+        return subscriptions.length;
+    }
+
+    /**
+     * Delivers the date to every subscriber registered at the moment of the call.
+     */
+    public void dispatch(int day, int month, int year) {
+        Subscription[] current = subscriptions;
+        int packed = PackedDate.of(year, month, day);
+        for (Subscription subscription : current) {
+            subscription.offer(packed);
+        }
+    }
+
+    private synchronized Subscription add(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        Subscription[] updated = new Subscription[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+        return subscription;
+    }
+
+    /**
+     * One registered listener. Keep it to unsubscribe with {@link #remove(Subscription)}.
+     */
+    public static final class Subscription implements Runnable {
+
+        private final DateChangeDispatcher dispatcher;
+        private final Listener strongListener;
+        private final WeakReference<Listener> weakListener;
+        private final Executor executor;
+        private final AtomicInteger latest = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private Subscription(DateChangeDispatcher dispatcher, Listener listener, Executor executor, boolean weak) {
+            this.dispatcher = dispatcher;
+            this.executor = executor;
+            if (weak) {
+                strongListener = null;
+                weakListener = new WeakReference<>(listener);
+            } else {
+                strongListener = listener;
+                weakListener = null;
+            }
+        }
+
+        public Listener getListener() {
+            return weakListener != null ? weakListener.get() : strongListener;
+        }
+
+        private void offer(int packed) {
+            if (executor == null) {
+                deliver(packed);
+                return;
+            }
+            latest.set(packed);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            // cleared before reading, so a date offered meanwhile is either read now or scheduled again
+            scheduled.set(false);
+            deliver(latest.get());
+        }
+
+        private void deliver(int packed) {
+            if (cancelled) {
+                return;
+            }
+            Listener listener = getListener();
+            if (listener == null) {
+                dispatcher.remove(this);
+                return;
+            }
+            listener.onChange(PackedDate.getDay(packed), PackedDate.getMonth(packed), PackedDate.getYear(packed));
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.android.editdateview.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Calendar of allowed days: excluded weekdays (e.g. weekends) plus single blackout dates such as
+ * public holidays.
+ * <p>
+ * The allowed days of a year are kept as a bitset of {@link #WORDS_PER_YEAR} longs, bit {@code i}
+ * standing for day of year {@code i} (0-based). A year is built on first use and cached until the
+ * constraints change, so {@link #isAllowed(int)} is O(1) and does not allocate, and
+ * {@link #nextAllowed(int)} skips 64 days per step. Instances are thread safe and can be shared.
+ */
+public final class DateConstraints {
+
+    public static final int WORDS_PER_YEAR = 6;
+
+    public static final int MONDAY = 1;
+    public static final int TUESDAY = 1 << 1;
+    public static final int WEDNESDAY = 1 << 2;
+    public static final int THURSDAY = 1 << 3;
+    public static final int FRIDAY = 1 << 4;
+    public static final int SATURDAY = 1 << 5;
+    public static final int SUNDAY = 1 << 6;
+    public static final int WEEKENDS = SATURDAY | SUNDAY;
+    public static final int ALL_WEEKDAYS = WEEKENDS | MONDAY | TUESDAY | WEDNESDAY | THURSDAY | FRIDAY;
+
+    private final AtomicReferenceArray<long[]> allowed = new AtomicReferenceArray<>(DateNormalizer.MAX_YEAR + 1);
+    private final Map<Integer, long[]> blackouts = new HashMap<>();
+    private volatile int excludedWeekdays;
+
+    /**
+     * @param weekdays {@link #MONDAY} .. {@link #SUNDAY} flags, e.g. {@link #WEEKENDS}
+     */
+    public synchronized void setExcludedWeekdays(int weekdays) {
+        excludedWeekdays = weekdays;
+        invalidate();
+    }
+
+    public int getExcludedWeekdays() {
+        return excludedWeekdays;
+    }
+
+    /**
+     * @param packedDate a valid {@link PackedDate}
+     */
+    public synchronized void addBlackout(int packedDate) {
+        checkDate(packedDate);
+        int year = PackedDate.getYear(packedDate);
+        long[] bits = blackouts.computeIfAbsent(year, y -> new long[WORDS_PER_YEAR]);
+        int day = dayOfYear(packedDate);
+        bits[day >>> 6] |= 1L << day;
+        allowed.set(year, null);
+    }
+
+    /**
+     * Adds every day of {@code [from, to]} as blackout.
+     */
+    public synchronized void addBlackoutRange(int from, int to) {
+        checkDate(from);
+        checkDate(to);
+        long last = PackedDate.toEpochDay(to);
+        for (long day = PackedDate.toEpochDay(from); day <= last; day++) {
+            addBlackout(PackedDate.fromEpochDay(day));
+        }
+    }
+
+    public synchronized void clearBlackouts() {
+        blackouts.clear();
+        invalidate();
+    }
+
+    /**
+     * Adds the blackout dates of a table in bulk: one date per line, {@code yyyy-MM-dd} or
+     * {@code yyyyMMdd}; empty lines and lines starting with {@code #} are skipped.
+     *
+     * @return the number of dates read
+     * @throws IllegalArgumentException if a line is not a valid date
+     */
+    public int loadBlackouts(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        int count = 0;
+        int lineNumber = 0;
+        synchronized (this) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+                    continue;
+                }
+                int date = DateParser.parseIso(trimmed);
+                if (date == DateParser.INVALID || !PackedDate.isValid(date) || PackedDate.getYear(date) > DateNormalizer.MAX_YEAR) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " is not a date: " + trimmed);
+                }
+                addBlackout(date);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @see #loadBlackouts(Reader)
+     */
+    public int loadBlackouts(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return loadBlackouts(reader);
+        }
+    }
+
+    /**
+     * @return true if the complete date is allowed; incomplete dates and years outside
+     * {@link DateNormalizer#MIN_YEAR}..{@link DateNormalizer#MAX_YEAR} are always allowed
+     */
+    public boolean isAllowed(int packedDate) {
+        int year = PackedDate.getYear(packedDate);
+        if (!PackedDate.isComplete(packedDate) || year < DateNormalizer.MIN_YEAR || year > DateNormalizer.MAX_YEAR) {
+            return true;
+        }
+        int day = dayOfYear(packedDate);
+        return (yearBits(year)[day >>> 6] & (1L << day)) != 0;
+    }
+
+    /**
+     * @return the first allowed date on or after {@code packedDate}, {@link PackedDate#NONE} if there
+     * is none up to {@link DateNormalizer#MAX_YEAR}
+     */
+    public int nextAllowed(int packedDate) {
+        return nextAllowed(packedDate, PackedDate.NONE);
+    }
+
+    /**
+     * Like {@link #nextAllowed(int)}, but scans no further than {@code maxDate}. Only the years up to
+     * it are built, so a bounded field never builds the calendar of every year.
+     *
+     * @param maxDate last date to consider, {@link PackedDate#NONE} for {@link DateNormalizer#MAX_YEAR}
+     */
+    public int nextAllowed(int packedDate, int maxDate) {
+        checkDate(packedDate);
+        if ((excludedWeekdays & ALL_WEEKDAYS) == ALL_WEEKDAYS) {
+            return PackedDate.NONE;
+        }
+        int lastYear = maxDate == PackedDate.NONE ? DateNormalizer.MAX_YEAR : PackedDate.getYear(maxDate);
+        int year = PackedDate.getYear(packedDate);
+        int day = dayOfYear(packedDate);
+        for (; year <= lastYear; year++, day = 0) {
+            long[] bits = yearBits(year);
+            for (int word = day >>> 6; word < WORDS_PER_YEAR; word++) {
+                long candidates = bits[word];
+                if (word == day >>> 6) {
+                    candidates &= -1L << day;
+                }
+                if (candidates != 0) {
+                    int next = dateOf(year, (word << 6) + Long.numberOfTrailingZeros(candidates));
+                    return maxDate == PackedDate.NONE || next <= maxDate ? next : PackedDate.NONE;
+                }
+            }
+        }
+        return PackedDate.NONE;
+    }
+
+    /**
+     * @return the last allowed date on or before {@code packedDate}, {@link PackedDate#NONE} if there
+     * is none down to {@link DateNormalizer#MIN_YEAR}
+     */
+    public int previousAllowed(int packedDate) {
+        return previousAllowed(packedDate, PackedDate.NONE);
+    }
+
+    /**
+     * Like {@link #previousAllowed(int)}, but scans no further back than {@code minDate}.
+     *
+     * @param minDate first date to consider, {@link PackedDate#NONE} for {@link DateNormalizer#MIN_YEAR}
+     */
+    public int previousAllowed(int packedDate, int minDate) {
+        checkDate(packedDate);
+        if ((excludedWeekdays & ALL_WEEKDAYS) == ALL_WEEKDAYS) {
+            return PackedDate.NONE;
+        }
+        int firstYear = minDate == PackedDate.NONE ? DateNormalizer.MIN_YEAR : PackedDate.getYear(minDate);
+        int year = PackedDate.getYear(packedDate);
+        int day = dayOfYear(packedDate);
+        for (; year >= firstYear; year--, day = WORDS_PER_YEAR * 64 - 1) {
+            long[] bits = yearBits(year);
+            for (int word = day >>> 6; word >= 0; word--) {
+                long candidates = bits[word];
+                if (word == day >>> 6) {
+                    candidates &= -1L >>> (63 - (day & 63));
+                }
+                if (candidates != 0) {
+                    int previous = dateOf(year, (word << 6) + 63 - Long.numberOfLeadingZeros(candidates));
+                    return minDate == PackedDate.NONE || previous >= minDate ? previous : PackedDate.NONE;
+                }
+            }
+        }
+        return PackedDate.NONE;
+    }
+
+    private long[] yearBits(int year) {
+        long[] bits = allowed.get(year);
+        return bits != null ? bits : buildYear(year);
+    }
+
+    private synchronized long[] buildYear(int year) {
+        long[] bits = allowed.get(year);
+        if (bits != null) {
+            return bits;
+        }
+        bits = new long[WORDS_PER_YEAR];
+        long january1 = PackedDate.toEpochDay(year, 1, 1);
+        int days = PackedDate.isLeapYear(year) ? 366 : 365;
+        // ISO weekday flag of January 1st; 1970-01-01 was a Thursday
+        int weekday = (int) Math.floorMod(january1 + 3, 7L);
+        int excluded = excludedWeekdays;
+        for (int day = 0; day < days; day++) {
+            if ((excluded & (1 << weekday)) == 0) {
+                bits[day >>> 6] |= 1L << day;
+            }
+            weekday = weekday == 6 ? 0 : weekday + 1;
+        }
+        long[] blackout = blackouts.get(year);
+        if (blackout != null) {
+            for (int i = 0; i < WORDS_PER_YEAR; i++) {
+                bits[i] &= ~blackout[i];
+            }
+        }
+        allowed.set(year, bits);
+        return bits;
+    }
+
+    private void invalidate() {
+        for (int year = 0; year < allowed.length(); year++) {
+            allowed.set(year, null);
+        }
+    }
+
+    private static void checkDate(int packedDate) {
+        if (!PackedDate.isValid(packedDate) || PackedDate.getYear(packedDate) > DateNormalizer.MAX_YEAR) {
+            throw new IllegalArgumentException("Invalid date: " + packedDate);
+        }
+    }
+
+    private static int dayOfYear(int packedDate) {
+        int year = PackedDate.getYear(packedDate);
+        return (int) (PackedDate.toEpochDay(packedDate) - PackedDate.toEpochDay(year, 1, 1));
+    }
+
+    private static int dateOf(int year, int dayOfYear) {
+        return PackedDate.fromEpochDay(PackedDate.toEpochDay(year, 1, 1) + dayOfYear);
+    }
+}
@@ -0,0 +1,127 @@
+package com.android.editdateview.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable configuration of a date field: format, separator and the three hint placeholders.
+ * <p>
+ * Specs are interned, every view with the same configuration shares one instance together with
+ * its precomputed hint and {@link DateTemplate} (separator mask and segment offsets). Use
+ * {@link #of(int, char, char, char, char)} or the {@code with*} methods.
+ */
+public final class DateFormatSpec {
+
+    private static final ConcurrentHashMap<Long, DateFormatSpec> SPECS = new ConcurrentHashMap<>();
+
+    private final DateTemplate template;
+    private final char dayPlaceholder;
+    private final char monthPlaceholder;
+    private final char yearPlaceholder;
+    private final String hint;
+
+    private DateFormatSpec(DateTemplate template, char dayPlaceholder, char monthPlaceholder, char yearPlaceholder) {
+        this.template = template;
+        this.dayPlaceholder = dayPlaceholder;
+        this.monthPlaceholder = monthPlaceholder;
+        this.yearPlaceholder = yearPlaceholder;
+        char[] hintChars = new char[template.getLength()];
+        template.reset(hintChars);
+        for (int i = 0; i < template.getSegmentCount(); i++) {
+            char placeholder = switch (template.getSegmentKind(i)) {
+                case DateMaskEngine.SEGMENT_DAY -> dayPlaceholder;
+                case DateMaskEngine.SEGMENT_MONTH -> monthPlaceholder;
+                default -> yearPlaceholder;
+            };
+            Arrays.fill(hintChars, template.getSegmentOffset(i), template.getSegmentEnd(i), placeholder);
+        }
+        hint = new String(hintChars);
+    }
+
+    /**
+     * @param format    one of the {@code DateMaskEngine.FORMAT_*} constants
+     * @param separator one of the {@code DateMaskEngine.SEPARATOR_*} constants
+     * @return the shared spec of this configuration
+     */
+    public static DateFormatSpec of(int format, char separator, char dayPlaceholder, char monthPlaceholder, char yearPlaceholder) {
+        DateTemplate template = DateTemplate.of(format, separator);
+        long key = key(format, separator, dayPlaceholder, monthPlaceholder, yearPlaceholder);
+        DateFormatSpec spec = SPECS.get(key);
+        if (spec == null) {
+            spec = new DateFormatSpec(template, dayPlaceholder, monthPlaceholder, yearPlaceholder);
+            DateFormatSpec existing = SPECS.putIfAbsent(key, spec);
+            if (existing != null) {
+                spec = existing;
+            }
+        }
+        return spec;
+    }
+
+    /**
+     * @param key a value of {@link #getKey()}
+     * @throws IllegalArgumentException if the key does not describe a valid spec
+     */
+    public static DateFormatSpec fromKey(long key) {
+        DateFormatSpec spec = SPECS.get(key);
+        if (spec != null) {
+            return spec;
+        }
+        return of((int) (key >>> 56), (char) ((key >>> 48) & 0xFF),
+                (char) ((key >>> 32) & 0xFFFF), (char) ((key >>> 16) & 0xFFFF), (char) (key & 0xFFFF));
+    }
+
+    /**
+     * @return a primitive id of this configuration, e.g. to save it in a {@code Parcel}
+     */
+    public long getKey() {
+        return key(getFormat(), getSeparator(), dayPlaceholder, monthPlaceholder, yearPlaceholder);
+    }
+
+    public DateFormatSpec withFormat(int format) {
+        return of(format, getSeparator(), dayPlaceholder, monthPlaceholder, yearPlaceholder);
+    }
+
+    public DateFormatSpec withSeparator(char separator) {
+        return of(getFormat(), separator, dayPlaceholder, monthPlaceholder, yearPlaceholder);
+    }
+
+    public DateFormatSpec withPlaceholders(char dayPlaceholder, char monthPlaceholder, char yearPlaceholder) {
+        return of(getFormat(), getSeparator(), dayPlaceholder, monthPlaceholder, yearPlaceholder);
+    }
+
+    public DateTemplate getTemplate() {
+        return template;
+    }
+
+    public int getFormat() {
+        return template.getFormat();
+    }
+
+    public char getSeparator() {
+        return template.getSeparator();
+    }
+
+    public char getDayPlaceholder() {
+        return dayPlaceholder;
+    }
+
+    public char getMonthPlaceholder() {
+        return monthPlaceholder;
+    }
+
+    public char getYearPlaceholder() {
+        return yearPlaceholder;
+    }
+
+    /**
+     * @return the hint, e.g. {@code dd.mm.yyyy}
+     */
+    public String getHint() {
+        return hint;
+    }
+
+    private static long key(int format, char separator, char dayPlaceholder, char monthPlaceholder, char yearPlaceholder) {
+        return ((long) format << 56) | ((long) separator << 48)
+                | ((long) dayPlaceholder << 32) | ((long) monthPlaceholder << 16) | yearPlaceholder;
+    }
+}
@@ -0,0 +1,568 @@
+package com.android.editdateview.engine;
+
+/**
+ * Headless keystroke engine behind {@code EditDateView}.
+ * <p>
+ * Holds the mask buffer of the current {@link DateTemplate}, the caret and the date (one
+ * {@link PackedDate}) and applies digit, separator, deletion and paste events to them. The engine
+ * does not depend on Android and does not allocate while handling an event, so it can be driven and
+ * profiled on a plain JVM.
+ */
+public final class DateMaskEngine {
+
+    public static final int FORMAT_DMY = 0;
+    public static final int FORMAT_YMD = 1;
+    public static final int FORMAT_MDY = 2;
+
+    public static final char SEPARATOR_DOT = '.';
+    public static final char SEPARATOR_SLASH = '/';
+    public static final char SEPARATOR_DASH = '-';
+
+    public static final char CHAR_PLACEHOLDER = ' ';
+
+    public static final int SEGMENT_DAY = 1;
+    public static final int SEGMENT_MONTH = 1 << 1;
+    public static final int SEGMENT_YEAR = 1 << 2;
+    public static final int SEGMENTS_ALL = SEGMENT_DAY | SEGMENT_MONTH | SEGMENT_YEAR;
+
+    public static final int DATE_INVALID = -1;
+    public static final int DATE_UNCHANGED = 0;
+    public static final int DATE_CHANGED = 1;
+
+    private DateTemplate template = DateTemplate.of(FORMAT_DMY, SEPARATOR_DOT);
+
+    private char[] chars = new char[template.getLength()];
+    private int date = PackedDate.NONE;
+    private int caret;
+
+    // chars changed since clearDirty(): segment mask and char range [dirtyStart, dirtyEnd)
+    private int dirtySegments;
+    private int dirtyStart = chars.length;
+    private int dirtyEnd;
+
+    private int committedDate = PackedDate.NONE;
+    private int minDate = PackedDate.NONE;
+    private int maxDate = PackedDate.NONE;
+    private DateConstraints constraints;
+
+    public DateMaskEngine() {
+        resetChars();
+    }
+
+    public static boolean isSeparator(char c) {
+        return c == SEPARATOR_DOT || c == SEPARATOR_SLASH || c == SEPARATOR_DASH;
+    }
+
+    public static boolean isValidFormat(int format) {
+        return format == FORMAT_DMY || format == FORMAT_YMD || format == FORMAT_MDY;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return PackedDate.isLeapYear(year);
+    }
+
+    public int getFormat() {
+        return template.getFormat();
+    }
+
+    public char getSeparator() {
+        return template.getSeparator();
+    }
+
+    public DateTemplate getTemplate() {
+        return template;
+    }
+
+    public int getDay() {
+        return PackedDate.getDay(date);
+    }
+
+    public int getMonth() {
+        return PackedDate.getMonth(date);
+    }
+
+    public int getYear() {
+        return PackedDate.getYear(date);
+    }
+
+    /**
+     * @return the date as {@link PackedDate}; fields not entered yet are 0
+     */
+    public int getPackedDate() {
+        return date;
+    }
+
+    public boolean isComplete() {
+        return PackedDate.isComplete(date);
+    }
+
+    public int getCaret() {
+        return caret;
+    }
+
+    /**
+     * Returns the live mask buffer, {@link DateTemplate#getLength()} chars. The array is owned by the
+     * engine and must not be modified; it is replaced when a template of another length is configured.
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * @return the {@code SEGMENT_*} flags of the segments whose chars changed since {@link #clearDirty()}
+     */
+    public int getDirtySegments() {
+        return dirtySegments;
+    }
+
+    /**
+     * @return the first char changed since {@link #clearDirty()}, the buffer length if none
+     */
+    public int getDirtyStart() {
+        return dirtyStart;
+    }
+
+    /**
+     * @return the end (exclusive) of the chars changed since {@link #clearDirty()}, 0 if none
+     */
+    public int getDirtyEnd() {
+        return dirtyEnd;
+    }
+
+    /**
+     * Marks the buffer as shown, e.g. after it was copied to the text field.
+     */
+    public void clearDirty() {
+        dirtySegments = 0;
+        dirtyStart = chars.length;
+        dirtyEnd = 0;
+    }
+
+    public boolean hasDate() {
+        return date != PackedDate.NONE;
+    }
+
+    public int getMinDate() {
+        return minDate;
+    }
+
+    public int getMaxDate() {
+        return maxDate;
+    }
+
+    /**
+     * Restricts the date to {@code [minDate, maxDate]} (packed dates, {@link PackedDate#NONE} for no
+     * bound). The bounds apply on every segment completion and in {@link #setDate(int, int, int)};
+     * the current date is clamped right away.
+     */
+    public void setBounds(int minDate, int maxDate) {
+        if (minDate != PackedDate.NONE && !PackedDate.isValid(minDate)) {
+            throw new IllegalArgumentException("Invalid min date: " + minDate);
+        }
+        if (maxDate != PackedDate.NONE && !PackedDate.isValid(maxDate)) {
+            throw new IllegalArgumentException("Invalid max date: " + maxDate);
+        }
+        if (minDate != PackedDate.NONE && maxDate != PackedDate.NONE && minDate > maxDate) {
+            throw new IllegalArgumentException("min date " + minDate + " is after max date " + maxDate);
+        }
+        this.minDate = minDate;
+        this.maxDate = maxDate;
+        applyBounds();
+    }
+
+    public DateConstraints getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Moves complete dates the constraints do not allow to the next allowed day, or to the previous
+     * one if there is none up to the max date. Applies like the bounds; {@code null} for none.
+     */
+    public void setConstraints(DateConstraints constraints) {
+        this.constraints = constraints;
+        applyBounds();
+    }
+
+    /**
+     * Changes the layout of the mask. The buffer is rebuilt from the current date fields.
+     *
+     * @return true if the buffer holds a date to show
+     */
+    public boolean configure(int format, char separator) {
+        return configure(DateTemplate.of(format, separator));
+    }
+
+    /**
+     * @see #configure(int, char)
+     */
+    public boolean configure(DateTemplate template) {
+        this.template = template;
+        if (chars.length != template.getLength()) {
+            chars = new char[template.getLength()];
+            clearDirty();
+        }
+        resetChars();
+        if (hasDate()) {
+            for (int i = 0; i < template.getSegmentCount(); i++) {
+                makeSegmentChars(i);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Clears the date. Clearing is not reported by {@link #commitChange()}.
+     */
+    public void reset() {
+        date = PackedDate.NONE;
+        caret = 0;
+        resetChars();
+        commitChange();
+    }
+
+    /**
+     * Restores a date saved with {@link #getPackedDate()}. The date is taken as is (no normalization
+     * or bounds, it was valid when saved) and becomes the committed date, so it is not reported.
+     */
+    public void restore(int packedDate) {
+        date = packedDate;
+        caret = 0;
+        resetChars();
+        for (int i = 0; i < template.getSegmentCount(); i++) {
+            if (template.getSegmentValue(i, date) != 0) {
+                makeSegmentChars(i);
+            }
+        }
+        committedDate = date;
+    }
+
+    /**
+     * Ends a logical edit. Any number of segment updates made since the previous call are
+     * reported once, and only if the resulting date differs from the last reported one.
+     *
+     * @return true if the date changed since the last call
+     */
+    public boolean commitChange() {
+        if (date == committedDate) {
+            return false;
+        }
+        committedDate = date;
+        return true;
+    }
+
+    /**
+     * Applies a typed digit at the given position. A digit that fills a segment completes it and
+     * moves the caret over the following separator.
+     *
+     * @return the new caret position
+     */
+    public int inputDigit(int position, char digit) {
+        if (position < chars.length && !template.isSeparatorPosition(position)) {
+            setChar(position, digit, template.getSegmentAt(position));
+            position++;
+        }
+        int last = template.getSegmentCount() - 1;
+        for (int i = 0; i < last; i++) {
+            if (position == template.getSegmentEnd(i)) {
+                completeSegment(i);
+                position++;
+            }
+        }
+        if (position >= template.getSegmentEnd(last)) {
+            completeSegment(last);
+        }
+        caret = position;
+        return caret;
+    }
+
+    /**
+     * Applies a typed separator at the given position. The segment under the caret is completed
+     * and the caret jumps to the start of the next one.
+     *
+     * @return the new caret position
+     */
+    public int inputSeparator(int position) {
+        int last = template.getSegmentCount() - 1;
+        int segment = 0;
+        while (segment < last && position > template.getSegmentEnd(segment)) {
+            segment++;
+        }
+        completeSegment(segment);
+        caret = segment == last ? chars.length : template.getSegmentEnd(segment) + 1;
+        return caret;
+    }
+
+    /**
+     * Clears {@code count} chars starting at {@code position}; separators are kept.
+     * When no digit is left the whole date is reset.
+     *
+     * @return false if the date was reset, true if the buffer still holds digits
+     */
+    public boolean delete(int position, int count) {
+        if (count > chars.length) {
+            count = chars.length;
+        }
+        int end = Math.min(position + count, chars.length);
+        for (int i = position; i < end; i++) {
+            if (template.isSeparatorPosition(i)) {
+                continue;
+            }
+            setChar(i, CHAR_PLACEHOLDER, template.getSegmentAt(i));
+        }
+        caret = position;
+        if (isBufferVoid()) {
+            reset();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a pasted date. Every form accepted by {@link DateParser} is taken, the fields are
+     * validated and the buffer is rebuilt in the current layout.
+     *
+     * @return {@link #DATE_INVALID}, {@link #DATE_UNCHANGED} or {@link #DATE_CHANGED}
+     */
+    public int paste(CharSequence source) {
+        return setDateString(source);
+    }
+
+    /**
+     * Sets the date, normalized by {@link DateNormalizer}, and rebuilds the buffer.
+     *
+     * @return true if the date changed
+     */
+    public boolean setDate(int dayInput, int monthInput, int yearInput) {
+        int normalized = constrain(DateNormalizer.normalize(yearInput, monthInput, dayInput));
+        boolean changed = normalized != date;
+        date = normalized;
+        updateChars();
+        return changed;
+    }
+
+    /**
+     * Sets the date from a string in any form accepted by {@link DateParser#parse(CharSequence, int)}
+     * (ISO 8601 {@code yyyy-MM-dd} included).
+     *
+     * @return {@link #DATE_INVALID}, {@link #DATE_UNCHANGED} or {@link #DATE_CHANGED}
+     */
+    public int setDateString(CharSequence date) {
+        int packed = DateParser.parse(date, template.getFormat());
+        if (packed == DateParser.INVALID) {
+            return DATE_INVALID;
+        }
+        return setDate(PackedDate.getDay(packed), PackedDate.getMonth(packed), PackedDate.getYear(packed))
+                ? DATE_CHANGED : DATE_UNCHANGED;
+    }
+
+    /**
+     * @return the date as ISO 8601 string ({@code yyyy-MM-dd}) or null if it is not complete
+     */
+    public String getDateIso() {
+        if (!isComplete()) {
+            return null;
+        }
+        char[] iso = new char[DateTemplate.ISO_LENGTH];
+        DateTemplate.writeIso(iso, 0, getDay(), getMonth(), getYear());
+        return new String(iso);
+    }
+
+    /**
+     * Writes the date as {@code yyyy-MM-dd} into {@code dst} starting at {@code offset}.
+     *
+     * @return the number of chars written, 0 if the date is not complete
+     */
+    public int getDateIso(char[] dst, int offset) {
+        if (!isComplete()) {
+            return 0;
+        }
+        return DateTemplate.writeIso(dst, offset, getDay(), getMonth(), getYear());
+    }
+
+    /**
+     * Appends the date as {@code yyyy-MM-dd} to {@code out}.
+     *
+     * @return false if the date is not complete and nothing was appended
+     */
+    public boolean appendDateIso(StringBuilder out) {
+        if (!isComplete()) {
+            return false;
+        }
+        DateTemplate.appendIso(out, getDay(), getMonth(), getYear());
+        return true;
+    }
+
+    /**
+     * Completes the input when editing ends: a date with an empty segment is reset, missing fields
+     * are computed from the typed digits and the buffer is normalized.
+     *
+     * @return false if the date was reset
+     */
+    public boolean complete() {
+        int count = template.getSegmentCount();
+        for (int i = 0; i < count; i++) {
+            if (isSegmentVoid(template.getSegmentOffset(i), template.getSegmentEnd(i))) {
+                reset();
+                return false;
+            }
+        }
+        boolean isNotChanged = true;
+        for (int i = 0; i < count; i++) {
+            if (template.getSegmentValue(i, date) == 0) {
+                isNotChanged = false;
+                completeSegment(i);
+            }
+        }
+        if (isNotChanged) {
+            for (int i = 0; i < count; i++) {
+                makeSegmentChars(i);
+            }
+        }
+        return true;
+    }
+
+    public int getDayPosition() {
+        return template.getDayOffset();
+    }
+
+    public int getMonthPosition() {
+        return template.getMonthOffset();
+    }
+
+    public int getYearPosition() {
+        return template.getYearOffset();
+    }
+
+    private void resetChars() {
+        template.reset(chars);
+        markDirty(SEGMENTS_ALL, 0, chars.length);
+    }
+
+    private void updateChars() {
+        int count = template.getSegmentCount();
+        for (int i = 0; i < count - 1; i++) {
+            setChar(template.getSegmentEnd(i), template.getSeparator(), 0);
+        }
+        for (int i = 0; i < count; i++) {
+            makeSegmentChars(i);
+        }
+    }
+
+    private boolean isSegmentVoid(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (chars[i] != CHAR_PLACEHOLDER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isBufferVoid() {
+        int count = 0;
+        for (char c : chars) {
+            if (c == CHAR_PLACEHOLDER) {
+                count++;
+            }
+        }
+        return count >= template.getDigitCount();
+    }
+
+    private int makeDigits(int startChar, int count) {
+        if (startChar + count > chars.length) {
+            return 0;
+        }
+        int summ = 0;
+        int multiplier = 1;
+        for (int i = count + startChar - 1; i >= startChar; i--) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                summ = summ + (c - '0') * multiplier;
+            }
+            multiplier = multiplier * 10;
+        }
+        return summ;
+    }
+
+    private void applyBounds() {
+        int bounded = constrain(date);
+        if (bounded == date) {
+            return;
+        }
+        date = bounded;
+        if (isComplete()) {
+            updateChars();
+        } else {
+            // of a partial date only the year and a known day are clamped, see DateNormalizer#clamp
+            for (int i = 0; i < template.getSegmentCount(); i++) {
+                if (template.getSegmentKind(i) != SEGMENT_MONTH && template.getSegmentValue(i, date) != 0) {
+                    makeSegmentChars(i);
+                }
+            }
+        }
+    }
+
+    private int constrain(int value) {
+        value = DateNormalizer.clamp(value, minDate, maxDate);
+        if (constraints == null || !PackedDate.isComplete(value) || constraints.isAllowed(value)) {
+            return value;
+        }
+        int next = constraints.nextAllowed(value, maxDate);
+        if (next != PackedDate.NONE) {
+            return next;
+        }
+        int previous = constraints.previousAllowed(value, minDate);
+        return previous != PackedDate.NONE ? previous : value;
+    }
+
+    private void revalidateDay() {
+        int day = getDay();
+        if (day > 0) {
+            date = PackedDate.withDay(date, DateNormalizer.clampDay(day, getMonth(), getYear()));
+            makeSegmentChars(template.getSegmentIndex(SEGMENT_DAY));
+        }
+    }
+
+    /**
+     * Validates the finished {@code index}-th segment from its typed digits.
+     */
+    private void completeSegment(int index) {
+        int input = makeDigits(template.getSegmentOffset(index), template.getSegmentWidth(index));
+        date = template.withSegmentValue(index, date, template.clampSegment(index, input));
+        revalidateDay();
+        applyBounds();
+        makeSegmentChars(index);
+    }
+
+    private void makeSegmentChars(int index) {
+        writeSegment(template.getSegmentOffset(index), template.getSegmentWidth(index),
+                template.getSegmentValue(index, date), template.getSegmentKind(index));
+    }
+
+    /**
+     * Writes a char and marks it dirty, but only if it differs from the current one.
+     */
+    private void setChar(int position, char c, int segment) {
+        if (chars[position] == c) {
+            return;
+        }
+        chars[position] = c;
+        markDirty(segment, position, position + 1);
+    }
+
+    private void markDirty(int segments, int start, int end) {
+        dirtySegments |= segments;
+        dirtyStart = Math.min(dirtyStart, start);
+        dirtyEnd = Math.max(dirtyEnd, end);
+    }
+
+    /**
+     * Renders the last {@code count} decimal digits of {@code value}; unchanged chars stay clean.
+     */
+    private void writeSegment(int position, int count, int value, int segment) {
+        for (int i = position + count - 1; i >= position; i--) {
+            setChar(i, (char) ('0' + value % 10), segment);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.android.editdateview.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The normalization rules of {@code EditDateView}: the year is clamped to 1..2100, the month to
+ * 1..12 and the day to the length of the month.
+ * <p>
+ * {@link DateMaskEngine} uses the same methods, so a date normalized here is exactly the date the
+ * widget shows. The batch methods work on {@link PackedDate} ints: the sequential ones do not
+ * allocate, the parallel ones split the range into chunks and run them on the common
+ * {@link ForkJoinPool}. {@link DateParser#INVALID} entries are passed through unchanged.
+ * <p>
+ * Optional min/max bounds are packed dates as well, so a bound check is a single int comparison.
+ */
+public final class DateNormalizer {
+
+    public static final int MIN_YEAR = 1;
+    public static final int MAX_YEAR = 2100;
+
+    /**
+     * Ranges shorter than this are not split any further by the parallel methods.
+     */
+    public static final int PARALLEL_CHUNK = 16 * 1024;
+
+    private DateNormalizer() {
+    }
+
+    public static int clampYear(int year) {
+        return Math.max(MIN_YEAR, Math.min(year, MAX_YEAR));
+    }
+
+    public static int clampMonth(int month) {
+        return Math.max(1, Math.min(month, 12));
+    }
+
+    /**
+     * @param month 0 if not known yet, the day is then clamped to 31
+     */
+    public static int clampDay(int day, int month, int year) {
+        if (day < 1) return 1;
+        return Math.min(day, PackedDate.lengthOfMonth(year, month));
+    }
+
+    /**
+     * @return the normalized packed date
+     */
+    public static int normalize(int year, int month, int day) {
+        int normalizedYear = clampYear(year);
+        int normalizedMonth = clampMonth(month);
+        return PackedDate.of(normalizedYear, normalizedMonth, clampDay(day, normalizedMonth, normalizedYear));
+    }
+
+    /**
+     * @return the normalized packed date, {@link DateParser#INVALID} stays as is
+     */
+    public static int normalize(int packed) {
+        if (packed == DateParser.INVALID) {
+            return DateParser.INVALID;
+        }
+        return normalize(PackedDate.getYear(packed), PackedDate.getMonth(packed), PackedDate.getDay(packed));
+    }
+
+    /**
+     * Clamps a packed date into {@code [min, max]}; {@link PackedDate#NONE} means "no bound".
+     * A complete date is clamped as a whole, of a partial date only a known year is clamped.
+     */
+    public static int clamp(int packed, int min, int max) {
+        if (PackedDate.isComplete(packed)) {
+            if (min != PackedDate.NONE && packed < min) {
+                return min;
+            }
+            if (max != PackedDate.NONE && packed > max) {
+                return max;
+            }
+            return packed;
+        }
+        int year = PackedDate.getYear(packed);
+        if (year == 0) {
+            return packed;
+        }
+        int bounded = year;
+        if (min != PackedDate.NONE) {
+            bounded = Math.max(bounded, PackedDate.getYear(min));
+        }
+        if (max != PackedDate.NONE) {
+            bounded = Math.min(bounded, PackedDate.getYear(max));
+        }
+        if (bounded == year) {
+            return packed;
+        }
+        int clamped = PackedDate.withYear(packed, bounded);
+        int day = PackedDate.getDay(clamped);
+        if (day != 0) {
+            clamped = PackedDate.withDay(clamped, clampDay(day, PackedDate.getMonth(clamped), bounded));
+        }
+        return clamped;
+    }
+
+    /**
+     * Normalizes {@code count} packed dates from {@code src} into {@code dst}. The arrays may be the same.
+     */
+    public static void normalize(int[] src, int srcOffset, int[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = normalize(src[srcOffset + i]);
+        }
+    }
+
+    /**
+     * Parses and normalizes {@code count} strings (see {@link DateParser#parse(CharSequence, int)}).
+     * Unparseable entries become {@link DateParser#INVALID}.
+     */
+    public static void normalize(CharSequence[] src, int srcOffset, int format, int[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = normalize(DateParser.parse(src[srcOffset + i], format));
+        }
+    }
+
+    public static void normalizeParallel(int[] src, int[] dst) {
+        checkLength(src.length, dst.length);
+        ForkJoinPool.commonPool().invoke(new PackedTask(src, dst, 0, src.length));
+    }
+
+    public static void normalizeParallel(CharSequence[] src, int format, int[] dst) {
+        checkLength(src.length, dst.length);
+        ForkJoinPool.commonPool().invoke(new StringTask(src, format, dst, 0, src.length));
+    }
+
+    private static void checkLength(int srcLength, int dstLength) {
+        if (dstLength < srcLength) {
+            throw new IllegalArgumentException("dst is shorter than src: " + dstLength + " < " + srcLength);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class PackedTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int[] dst;
+        private final int from;
+        private final int to;
+
+        PackedTask(int[] src, int[] dst, int from, int to) {
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                normalize(src, from, dst, from, to - from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PackedTask(src, dst, from, middle), new PackedTask(src, dst, middle, to));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class StringTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence[] src;
+        private final int format;
+        private final int[] dst;
+        private final int from;
+        private final int to;
+
+        StringTask(CharSequence[] src, int format, int[] dst, int from, int to) {
+            this.src = src;
+            this.format = format;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                normalize(src, from, format, dst, from, to - from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new StringTask(src, format, dst, from, middle), new StringTask(src, format, dst, middle, to));
+        }
+    }
+}
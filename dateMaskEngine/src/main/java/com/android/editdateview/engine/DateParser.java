@@ -0,0 +1,116 @@
+package com.android.editdateview.engine;
+
+/**
+ * Single-pass date parser working directly on a {@link CharSequence}.
+ * <p>
+ * Accepted forms (any of {@code . / -} as separator):
+ * <ul>
+ *     <li>{@code yyyy-MM-dd} - year first, accepted for every format (ISO 8601)</li>
+ *     <li>{@code dd.MM.yyyy} / {@code MM/dd/yyyy} - day or month first, decided by the format</li>
+ *     <li>{@code yyyyMMdd}, {@code ddMMyyyy}, {@code MMddyyyy} - compact, in the order of the format</li>
+ * </ul>
+ * The result is a {@link PackedDate} of the fields as written; range checks are left to the caller.
+ * No regex, no substrings and no allocation.
+ */
+public final class DateParser {
+
+    public static final int INVALID = -1;
+
+    private static final int SEPARATED_LENGTH = 10;
+    private static final int COMPACT_LENGTH = 8;
+
+    private DateParser() {
+    }
+
+    /**
+     * @param format field order for ambiguous input, one of the {@code DateMaskEngine.FORMAT_*} constants
+     * @return the packed date or {@link #INVALID}
+     */
+    public static int parse(CharSequence text, int format) {
+        if (text == null) {
+            return INVALID;
+        }
+        return parse(text, 0, text.length(), format);
+    }
+
+    /**
+     * Parses {@code text} between {@code start} (inclusive) and {@code end} (exclusive).
+     *
+     * @return the packed date or {@link #INVALID}
+     */
+    public static int parse(CharSequence text, int start, int end, int format) {
+        int length = end - start;
+        if (length == SEPARATED_LENGTH) {
+            if (isSeparator(text.charAt(start + 4)) && isSeparator(text.charAt(start + 7))) {
+                return parseFields(text, start, start + 5, start + 8);
+            }
+            if (isSeparator(text.charAt(start + 2)) && isSeparator(text.charAt(start + 5))) {
+                if (format == DateMaskEngine.FORMAT_MDY) {
+                    return parseFields(text, start + 6, start, start + 3);
+                }
+                return parseFields(text, start + 6, start + 3, start);
+            }
+            return INVALID;
+        }
+        if (length == COMPACT_LENGTH) {
+            return switch (format) {
+                case DateMaskEngine.FORMAT_YMD -> parseFields(text, start, start + 4, start + 6);
+                case DateMaskEngine.FORMAT_MDY -> parseFields(text, start + 4, start, start + 2);
+                default -> parseFields(text, start + 4, start + 2, start);
+            };
+        }
+        return INVALID;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd} or {@code yyyyMMdd} only.
+     *
+     * @return the packed date or {@link #INVALID}
+     */
+    public static int parseIso(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        return parseIso(text, 0, text.length());
+    }
+
+    public static int parseIso(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length == SEPARATED_LENGTH) {
+            if (text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+                return INVALID;
+            }
+            return parseFields(text, start, start + 5, start + 8);
+        }
+        if (length == COMPACT_LENGTH) {
+            return parseFields(text, start, start + 4, start + 6);
+        }
+        return INVALID;
+    }
+
+    private static int parseFields(CharSequence text, int yearPosition, int monthPosition, int dayPosition) {
+        int year = parseDigits(text, yearPosition, 4);
+        int month = parseDigits(text, monthPosition, 2);
+        int day = parseDigits(text, dayPosition, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return INVALID;
+        }
+        return PackedDate.of(year, month, day);
+    }
+
+    private static int parseDigits(CharSequence text, int position, int count) {
+        int value = 0;
+        for (int i = position; i < position + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isSeparator(char c) {
+        return DateMaskEngine.isSeparator(c);
+    }
+}
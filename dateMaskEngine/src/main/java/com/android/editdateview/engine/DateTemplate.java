@@ -0,0 +1,301 @@
+package com.android.editdateview.engine;
+
+/**
+ * Precomputed layout of the mask for one format and separator pair.
+ * <p>
+ * A format is a list of segments in display order ({@link #LAYOUTS}). A segment describes its
+ * kind, width, valid range and field of the {@link PackedDate}; the template compiles the list into
+ * a segment table (plus offsets) and a per-position segment lookup, which {@link DateMaskEngine}
+ * runs in one loop for every format. The template also holds the empty buffer (separators and
+ * placeholders), so rendering is an array copy plus integer arithmetic. All nine combinations are
+ * built once and shared; use {@link #of(int, char)}.
+ */
+public final class DateTemplate {
+
+    public static final int ISO_LENGTH = 10;
+
+    private static final char[] SEPARATORS = {
+            DateMaskEngine.SEPARATOR_DOT, DateMaskEngine.SEPARATOR_SLASH, DateMaskEngine.SEPARATOR_DASH
+    };
+    private static final Segment DAY = new Segment(DateMaskEngine.SEGMENT_DAY, 2, 1, 31, 1);
+    private static final Segment MONTH = new Segment(DateMaskEngine.SEGMENT_MONTH, 2, 1, 12, 100);
+    private static final Segment YEAR = new Segment(DateMaskEngine.SEGMENT_YEAR, 4,
+            DateNormalizer.MIN_YEAR, DateNormalizer.MAX_YEAR, 10000);
+    // segments in display order, indexed by DateMaskEngine.FORMAT_*
+    private static final Segment[][] LAYOUTS = {
+            {DAY, MONTH, YEAR},
+            {YEAR, MONTH, DAY},
+            {MONTH, DAY, YEAR}
+    };
+    private static final DateTemplate[] TEMPLATES = new DateTemplate[LAYOUTS.length * SEPARATORS.length];
+
+    static {
+        for (int format = 0; format < LAYOUTS.length; format++) {
+            for (int i = 0; i < SEPARATORS.length; i++) {
+                TEMPLATES[format * SEPARATORS.length + i] = new DateTemplate(format, SEPARATORS[i]);
+            }
+        }
+    }
+
+    private final int format;
+    private final char separator;
+    private final int dayOffset;
+    private final int monthOffset;
+    private final int yearOffset;
+    private final int digitCount;
+    private final Segment[] segments;
+    private final int[] segmentOffsets;
+    private final int[] segmentEnds;
+    // segment kind of every position, 0 for separators
+    private final int[] positionKinds;
+    private final char[] empty;
+
+    private DateTemplate(int format, char separator) {
+        this.format = format;
+        this.separator = separator;
+        segments = LAYOUTS[format];
+        segmentOffsets = new int[segments.length];
+        segmentEnds = new int[segments.length];
+        int digits = 0;
+        for (Segment segment : segments) {
+            digits += segment.width;
+        }
+        digitCount = digits;
+        positionKinds = new int[digits + segments.length - 1];
+        empty = new char[positionKinds.length];
+        int position = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                empty[position++] = separator;
+            }
+            segmentOffsets[i] = position;
+            segmentEnds[i] = position + segments[i].width;
+            for (; position < segmentEnds[i]; position++) {
+                positionKinds[position] = segments[i].kind;
+                empty[position] = DateMaskEngine.CHAR_PLACEHOLDER;
+            }
+        }
+        dayOffset = segmentOffsets[getSegmentIndex(DateMaskEngine.SEGMENT_DAY)];
+        monthOffset = segmentOffsets[getSegmentIndex(DateMaskEngine.SEGMENT_MONTH)];
+        yearOffset = segmentOffsets[getSegmentIndex(DateMaskEngine.SEGMENT_YEAR)];
+    }
+
+    /**
+     * @param format    one of the {@code DateMaskEngine.FORMAT_*} constants
+     * @param separator one of the {@code DateMaskEngine.SEPARATOR_*} constants
+     */
+    public static DateTemplate of(int format, char separator) {
+        if (!DateMaskEngine.isValidFormat(format)) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        return TEMPLATES[format * SEPARATORS.length + separatorIndex(separator)];
+    }
+
+    private static int separatorIndex(char separator) {
+        return switch (separator) {
+            case DateMaskEngine.SEPARATOR_DOT -> 0;
+            case DateMaskEngine.SEPARATOR_SLASH -> 1;
+            case DateMaskEngine.SEPARATOR_DASH -> 2;
+            default -> throw new IllegalArgumentException("Unknown separator: " + separator);
+        };
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    public int getDayOffset() {
+        return dayOffset;
+    }
+
+    public int getMonthOffset() {
+        return monthOffset;
+    }
+
+    public int getYearOffset() {
+        return yearOffset;
+    }
+
+    /**
+     * @return the number of chars of the mask, separators included
+     */
+    public int getLength() {
+        return empty.length;
+    }
+
+    /**
+     * @return the number of digit positions, the buffer is empty when all of them are placeholders
+     */
+    public int getDigitCount() {
+        return digitCount;
+    }
+
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @return the {@code DateMaskEngine.SEGMENT_*} kind of the {@code index}-th segment in display order
+     */
+    public int getSegmentKind(int index) {
+        return segments[index].kind;
+    }
+
+    /**
+     * @return the display index of the segment of {@code kind}
+     */
+    public int getSegmentIndex(int kind) {
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].kind == kind) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No segment " + kind + " in format " + format);
+    }
+
+    public int getSegmentOffset(int index) {
+        return segmentOffsets[index];
+    }
+
+    /**
+     * @return the end (exclusive) of the {@code index}-th segment, the next separator position
+     * unless it is the last segment
+     */
+    public int getSegmentEnd(int index) {
+        return segmentEnds[index];
+    }
+
+    public int getSegmentWidth(int index) {
+        return segments[index].width;
+    }
+
+    /**
+     * @return {@code value} clamped to the valid range of the {@code index}-th segment. The day is
+     * clamped to 1..31 here, the month length is checked against the whole date
+     */
+    public int clampSegment(int index, int value) {
+        Segment segment = segments[index];
+        return Math.max(segment.min, Math.min(value, segment.max));
+    }
+
+    /**
+     * @return the field of the {@code index}-th segment in {@code packedDate}, 0 if not set
+     */
+    public int getSegmentValue(int index, int packedDate) {
+        Segment segment = segments[index];
+        return packedDate / segment.scale % segment.modulus;
+    }
+
+    /**
+     * @return {@code packedDate} with the field of the {@code index}-th segment replaced by {@code value}
+     */
+    public int withSegmentValue(int index, int packedDate, int value) {
+        Segment segment = segments[index];
+        return packedDate + (value - getSegmentValue(index, packedDate)) * segment.scale;
+    }
+
+    /**
+     * @return the {@code DateMaskEngine.SEGMENT_*} kind at {@code position}, 0 for a separator
+     */
+    public int getSegmentAt(int position) {
+        return positionKinds[position];
+    }
+
+    public boolean isSeparatorPosition(int position) {
+        return positionKinds[position] == 0;
+    }
+
+    /**
+     * Resets {@code dst} to the empty mask.
+     */
+    public void reset(char[] dst) {
+        System.arraycopy(empty, 0, dst, 0, empty.length);
+    }
+
+    /**
+     * Writes the whole date into {@code dst}, separators included.
+     */
+    public void render(char[] dst, int packedDate) {
+        reset(dst);
+        for (int i = 0; i < segments.length; i++) {
+            int value = getSegmentValue(i, packedDate);
+            for (int position = segmentEnds[i] - 1; position >= segmentOffsets[i]; position--) {
+                dst[position] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd} into {@code dst} starting at {@code offset}.
+     *
+     * @return the number of chars written
+     */
+    public static int writeIso(char[] dst, int offset, int day, int month, int year) {
+        writeFourDigits(dst, offset, year);
+        dst[offset + 4] = '-';
+        writeTwoDigits(dst, offset + 5, month);
+        dst[offset + 7] = '-';
+        writeTwoDigits(dst, offset + 8, day);
+        return ISO_LENGTH;
+    }
+
+    /**
+     * Appends {@code yyyy-MM-dd} to {@code out}.
+     */
+    public static void appendIso(StringBuilder out, int day, int month, int year) {
+        out.append((char) ('0' + year / 1000 % 10))
+                .append((char) ('0' + year / 100 % 10))
+                .append((char) ('0' + year / 10 % 10))
+                .append((char) ('0' + year % 10))
+                .append('-')
+                .append((char) ('0' + month / 10))
+                .append((char) ('0' + month % 10))
+                .append('-')
+                .append((char) ('0' + day / 10))
+                .append((char) ('0' + day % 10));
+    }
+
+    static void writeTwoDigits(char[] dst, int position, int value) {
+        dst[position] = (char) ('0' + value / 10);
+        dst[position + 1] = (char) ('0' + value % 10);
+    }
+
+    static void writeFourDigits(char[] dst, int position, int value) {
+        dst[position] = (char) ('0' + value / 1000 % 10);
+        dst[position + 1] = (char) ('0' + value / 100 % 10);
+        dst[position + 2] = (char) ('0' + value / 10 % 10);
+        dst[position + 3] = (char) ('0' + value % 10);
+    }
+
+    /**
+     * One field of the mask: {@code width} digits of the {@link PackedDate} field at {@code scale}
+     * (1 for the day, 100 for the month, 10000 for the year), valid in {@code [min, max]}.
+     */
+    private static final class Segment {
+
+        final int kind;
+        final int width;
+        final int min;
+        final int max;
+        final int scale;
+        final int modulus;
+
+        Segment(int kind, int width, int min, int max, int scale) {
+            this.kind = kind;
+            this.width = width;
+            this.min = min;
+            this.max = max;
+            this.scale = scale;
+            int modulus = 1;
+            for (int i = 0; i < width; i++) {
+                modulus *= 10;
+            }
+            this.modulus = modulus;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.android.editdateview.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and a latency histogram of the input path.
+ * <p>
+ * Recording does not allocate and is safe from any thread: counters and histogram buckets are
+ * slots of {@link AtomicLongArray}s. The histogram has {@link #BUCKETS} fixed buckets, bucket
+ * {@code i} counts latencies below {@code 2^i} microseconds, the last one everything above.
+ * An instance can belong to one view or be shared, see {@link #global()}; {@link #snapshot()}
+ * copies the current values for upload.
+ */
+public final class InputMetrics {
+
+    /** Digits, separators and deletions handled by the view. */
+    public static final int KEYSTROKES = 0;
+    /** Inputs the filter dropped: non-date chars, invalid pastes, edits not at the start of the source. */
+    public static final int REJECTED_INPUTS = 1;
+    /** Renderings that replaced the whole text instead of editing it in place. */
+    public static final int FULL_REWRITES = 2;
+    /** Date change deliveries to the listeners. */
+    public static final int NOTIFICATIONS = 3;
+    /** Accepted pastes. */
+    public static final int PASTES = 4;
+    /** Renderings of the text, in place or full. */
+    public static final int RENDERS = 5;
+    /** Hint updates. */
+    public static final int HINT_UPDATES = 6;
+    public static final int COUNTERS = 7;
+
+    public static final int BUCKETS = 16;
+
+    private static final InputMetrics GLOBAL = new InputMetrics();
+
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray latency = new AtomicLongArray(2); // total nanos, max nanos
+
+    /**
+     * @return the instance shared by every view it is set on
+     */
+    public static InputMetrics global() {
+        return GLOBAL;
+    }
+
+    public void increment(int counter) {
+        counters.incrementAndGet(counter);
+    }
+
+    /**
+     * Records the handling time of one keystroke.
+     */
+    public void recordLatency(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        latency.addAndGet(0, nanos);
+        long max;
+        do {
+            max = latency.get(1);
+        } while (nanos > max && !latency.compareAndSet(1, max, nanos));
+    }
+
+    public Snapshot snapshot() {
+        long[] counterValues = new long[COUNTERS];
+        for (int i = 0; i < COUNTERS; i++) {
+            counterValues[i] = counters.get(i);
+        }
+        long[] bucketValues = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketValues[i] = buckets.get(i);
+        }
+        return new Snapshot(counterValues, bucketValues, latency.get(0), latency.get(1));
+    }
+
+    public void reset() {
+        for (int i = 0; i < COUNTERS; i++) {
+            counters.set(i, 0);
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        latency.set(0, 0);
+        latency.set(1, 0);
+    }
+
+    /**
+     * @return the exclusive upper bound of bucket {@code bucket}, {@link Long#MAX_VALUE} for the last one
+     */
+    public static long bucketUpperBoundNanos(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1000L << bucket;
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    /**
+     * Immutable copy of the metrics at one moment.
+     */
+    public static final class Snapshot {
+
+        private final long[] counters;
+        private final long[] buckets;
+        private final long totalLatencyNanos;
+        private final long maxLatencyNanos;
+
+        private Snapshot(long[] counters, long[] buckets, long totalLatencyNanos, long maxLatencyNanos) {
+            this.counters = counters;
+            this.buckets = buckets;
+            this.totalLatencyNanos = totalLatencyNanos;
+            this.maxLatencyNanos = maxLatencyNanos;
+        }
+
+        /**
+         * @param counter one of {@link #KEYSTROKES}, {@link #REJECTED_INPUTS}, {@link #FULL_REWRITES},
+         *                {@link #NOTIFICATIONS}, {@link #PASTES}, {@link #RENDERS}, {@link #HINT_UPDATES}
+         */
+        public long getCount(int counter) {
+            return counters[counter];
+        }
+
+        public long getBucketCount(int bucket) {
+            return buckets[bucket];
+        }
+
+        public long getLatencyCount() {
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            return count;
+        }
+
+        public long getTotalLatencyNanos() {
+            return totalLatencyNanos;
+        }
+
+        public long getMaxLatencyNanos() {
+            return maxLatencyNanos;
+        }
+
+        /**
+         * @param percentile 0..100
+         * @return the upper bound of the bucket holding the percentile, 0 without recorded latencies
+         */
+        public long getPercentileUpperBoundNanos(double percentile) {
+            long count = getLatencyCount();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return bucketUpperBoundNanos(i);
+                }
+            }
+            return bucketUpperBoundNanos(BUCKETS - 1);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.android.editdateview.engine;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives the default {@link DateFormatSpec} of a {@link Locale}.
+ * <p>
+ * The field order and the separator are taken from the platform's short date pattern
+ * (e.g. {@code M/d/yy} for en_US, {@code dd.MM.yy} for de_DE), the placeholders from the language.
+ * A locale is resolved on first use and cached; call {@link #invalidate()} when the platform
+ * locale data may have changed (configuration change).
+ */
+public final class LocaleDefaults {
+
+    private static final ConcurrentHashMap<Locale, DateFormatSpec> SPECS = new ConcurrentHashMap<>();
+
+    private LocaleDefaults() {
+    }
+
+    public static DateFormatSpec resolve(Locale locale) {
+        return SPECS.computeIfAbsent(locale, LocaleDefaults::compute);
+    }
+
+    public static void invalidate() {
+        SPECS.clear();
+    }
+
+    private static DateFormatSpec compute(Locale locale) {
+        String pattern = shortDatePattern(locale);
+        int format = DateMaskEngine.FORMAT_DMY;
+        char separator = DateMaskEngine.SEPARATOR_DOT;
+        if (pattern != null) {
+            format = parseFormat(pattern);
+            separator = parseSeparator(pattern);
+        }
+        return switch (locale.getLanguage()) {
+            case "ru", "uk", "be" -> DateFormatSpec.of(format, separator, 'д', 'м', 'г');
+            case "de", "nl" -> DateFormatSpec.of(format, separator, 't', 'm', 'j');
+            case "fr" -> DateFormatSpec.of(format, separator, 'j', 'm', 'a');
+            case "es", "pt" -> DateFormatSpec.of(format, separator, 'd', 'm', 'a');
+            case "it" -> DateFormatSpec.of(format, separator, 'g', 'm', 'a');
+            default -> DateFormatSpec.of(format, separator, 'd', 'm', 'y');
+        };
+    }
+
+    private static String shortDatePattern(Locale locale) {
+        DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.SHORT, locale);
+        if (dateFormat instanceof SimpleDateFormat) {
+            return ((SimpleDateFormat) dateFormat).toPattern();
+        }
+        return null;
+    }
+
+    /**
+     * @return the {@code DateMaskEngine.FORMAT_*} of the order of y, M and d in the pattern
+     */
+    static int parseFormat(String pattern) {
+        int year = -1;
+        int month = -1;
+        int day = -1;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if ((c == 'y' || c == 'u') && year < 0) {
+                    year = i;
+                } else if ((c == 'M' || c == 'L') && month < 0) {
+                    month = i;
+                } else if (c == 'd' && day < 0) {
+                    day = i;
+                }
+            }
+        }
+        if (year >= 0 && (month < 0 || year < month) && (day < 0 || year < day)) {
+            return DateMaskEngine.FORMAT_YMD;
+        }
+        if (month >= 0 && day >= 0 && month < day) {
+            return DateMaskEngine.FORMAT_MDY;
+        }
+        return DateMaskEngine.FORMAT_DMY;
+    }
+
+    /**
+     * @return the first supported separator of the pattern, {@link DateMaskEngine#SEPARATOR_DOT} if there is none
+     */
+    static char parseSeparator(String pattern) {
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && DateMaskEngine.isSeparator(c)) {
+                return c;
+            }
+        }
+        return DateMaskEngine.SEPARATOR_DOT;
+    }
+}
@@ -0,0 +1,134 @@
+package com.android.editdateview.engine;
+
+/**
+ * Date packed into a single int as decimal {@code yyyyMMdd} (2024-12-31 is {@code 20241231}).
+ * <p>
+ * Packed values of valid dates compare in calendar order, so they can be stored and sorted in
+ * primitive arrays. {@link #NONE} stands for "no date"; a field that is not known yet is 0.
+ * Conversion to and from epoch days (days since 1970-01-01, as {@code LocalDate.toEpochDay()})
+ * is pure integer arithmetic on the proleptic Gregorian calendar.
+ */
+public final class PackedDate {
+
+    public static final int NONE = 0;
+    public static final long NO_EPOCH_DAY = Long.MIN_VALUE;
+
+    // days of month 0 (not known yet) .. 12, second row for leap years
+    private static final byte[] MONTH_LENGTH = {
+            31, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31,
+            31, 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31
+    };
+
+    private static final int DAYS_PER_400_YEARS = 146097;
+    private static final int DAYS_0000_TO_1970 = 719468;
+
+    private PackedDate() {
+    }
+
+    public static int of(int year, int month, int day) {
+        return year * 10000 + month * 100 + day;
+    }
+
+    public static int getYear(int packed) {
+        return packed / 10000;
+    }
+
+    public static int getMonth(int packed) {
+        return packed / 100 % 100;
+    }
+
+    public static int getDay(int packed) {
+        return packed % 100;
+    }
+
+    public static int withYear(int packed, int year) {
+        return packed % 10000 + year * 10000;
+    }
+
+    public static int withMonth(int packed, int month) {
+        return packed - getMonth(packed) * 100 + month * 100;
+    }
+
+    public static int withDay(int packed, int day) {
+        return packed - getDay(packed) + day;
+    }
+
+    /**
+     * @return true if day, month and year are all set
+     */
+    public static boolean isComplete(int packed) {
+        return getDay(packed) != 0 && getMonth(packed) != 0 && getYear(packed) != 0;
+    }
+
+    /**
+     * @return true if the packed value is an existing calendar date
+     */
+    public static boolean isValid(int packed) {
+        int month = getMonth(packed);
+        int day = getDay(packed);
+        return getYear(packed) > 0 && month >= 1 && month <= 12 && day >= 1
+                && day <= lengthOfMonth(getYear(packed), month);
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+    }
+
+    /**
+     * @param month 0..12
+     * @return the number of days of the month, 31 if the month is not known (0)
+     */
+    public static int lengthOfMonth(int year, int month) {
+        return MONTH_LENGTH[(isLeapYear(year) ? 13 : 0) + month];
+    }
+
+    public static int compare(int packed1, int packed2) {
+        return Integer.compare(packed1, packed2);
+    }
+
+    public static boolean isBefore(int packed1, int packed2) {
+        return packed1 < packed2;
+    }
+
+    public static boolean isAfter(int packed1, int packed2) {
+        return packed1 > packed2;
+    }
+
+    /**
+     * @return days since 1970-01-01, {@link #NO_EPOCH_DAY} if the date is not complete
+     */
+    public static long toEpochDay(int packed) {
+        if (!isComplete(packed)) {
+            return NO_EPOCH_DAY;
+        }
+        return toEpochDay(getYear(packed), getMonth(packed), getDay(packed));
+    }
+
+    public static long toEpochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * @return the packed date of the given epoch day, {@link #NONE} for {@link #NO_EPOCH_DAY}
+     */
+    public static int fromEpochDay(long epochDay) {
+        if (epochDay == NO_EPOCH_DAY) {
+            return NONE;
+        }
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = (z >= 0 ? z : z - (DAYS_PER_400_YEARS - 1)) / DAYS_PER_400_YEARS;
+        long dayOfEra = z - era * DAYS_PER_400_YEARS;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return of(year, month, day);
+    }
+}
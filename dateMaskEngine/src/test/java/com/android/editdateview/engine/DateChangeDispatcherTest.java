@@ -0,0 +1,68 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DateChangeDispatcherTest {
+
+    @Test
+    public void dispatch_reachesEverySubscriber() {
+        DateChangeDispatcher dispatcher = new DateChangeDispatcher();
+        List<String> calls = new ArrayList<>();
+        dispatcher.add((day, month, year) -> calls.add("a" + day));
+        dispatcher.add((day, month, year) -> calls.add("b" + month));
+        dispatcher.dispatch(3, 4, 2020);
+        assertEquals(List.of("a3", "b4"), calls);
+    }
+
+    @Test
+    public void remove_duringDispatch_stopsCallsToRemovedListener() {
+        DateChangeDispatcher dispatcher = new DateChangeDispatcher();
+        int[] calls = new int[2];
+        DateChangeDispatcher.Listener second = (day, month, year) -> calls[1]++;
+        dispatcher.add((day, month, year) -> {
+            calls[0]++;
+            dispatcher.remove(second);
+        });
+        dispatcher.add(second);
+        dispatcher.dispatch(1, 1, 2000);
+        dispatcher.dispatch(2, 1, 2000);
+        assertArrayEquals(new int[]{2, 0}, calls);
+        assertEquals(1, dispatcher.size());
+    }
+
+    @Test
+    public void executor_conflatesToLatestDate() {
+        DateChangeDispatcher dispatcher = new DateChangeDispatcher();
+        ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        List<Integer> days = new ArrayList<>();
+        dispatcher.add((day, month, year) -> days.add(day), queue::add);
+        dispatcher.dispatch(1, 1, 2000);
+        dispatcher.dispatch(2, 1, 2000);
+        dispatcher.dispatch(3, 1, 2000);
+        assertEquals(1, queue.size());
+        queue.poll().run();
+        assertEquals(List.of(3), days);
+
+        dispatcher.dispatch(4, 1, 2000);
+        queue.poll().run();
+        assertEquals(List.of(3, 4), days);
+    }
+
+    @Test
+    public void removed_subscriptionWithQueuedDelivery_isNotCalled() {
+        DateChangeDispatcher dispatcher = new DateChangeDispatcher();
+        ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        int[] calls = new int[1];
+        DateChangeDispatcher.Subscription subscription = dispatcher.add((day, month, year) -> calls[0]++, queue::add);
+        dispatcher.dispatch(1, 1, 2000);
+        assertTrue(dispatcher.remove(subscription));
+        queue.poll().run();
+        assertEquals(0, calls[0]);
+    }
+}
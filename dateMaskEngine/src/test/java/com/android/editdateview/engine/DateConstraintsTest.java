@@ -0,0 +1,86 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class DateConstraintsTest {
+
+    @Test
+    public void isAllowed_excludesWeekdaysAndBlackouts() {
+        DateConstraints constraints = new DateConstraints();
+        constraints.setExcludedWeekdays(DateConstraints.WEEKENDS);
+        constraints.addBlackout(20241225);
+        assertTrue(constraints.isAllowed(20241227)); // Friday
+        assertFalse(constraints.isAllowed(20241228)); // Saturday
+        assertFalse(constraints.isAllowed(20241229)); // Sunday
+        assertFalse(constraints.isAllowed(20241225));
+        assertTrue(constraints.isAllowed(20241231)); // leap year, day 365
+        assertTrue(constraints.isAllowed(PackedDate.of(0, 12, 2024)));
+    }
+
+    @Test
+    public void nextAndPrevious_crossYearBoundary() {
+        DateConstraints constraints = new DateConstraints();
+        constraints.setExcludedWeekdays(DateConstraints.WEEKENDS);
+        constraints.addBlackoutRange(20241230, 20250102);
+        assertEquals(20250103, constraints.nextAllowed(20241228));
+        assertEquals(20241227, constraints.previousAllowed(20250102));
+        assertEquals(20241227, constraints.nextAllowed(20241227));
+    }
+
+    @Test
+    public void nextAllowed_noneLeft() {
+        DateConstraints constraints = new DateConstraints();
+        constraints.addBlackoutRange(21001230, 21001231);
+        assertEquals(PackedDate.NONE, constraints.nextAllowed(21001230));
+        assertEquals(21001229, constraints.previousAllowed(21001231));
+    }
+
+    @Test
+    public void scan_stopsAtBoundAndWhenEveryDayIsExcluded() {
+        DateConstraints constraints = new DateConstraints();
+        constraints.addBlackoutRange(20240101, 20301231);
+        assertEquals(PackedDate.NONE, constraints.nextAllowed(20240101, 20251231));
+        assertEquals(20310101, constraints.nextAllowed(20240101, PackedDate.NONE));
+        assertEquals(PackedDate.NONE, constraints.previousAllowed(20301231, 20240101));
+
+        constraints.setExcludedWeekdays(DateConstraints.ALL_WEEKDAYS);
+        assertEquals(PackedDate.NONE, constraints.nextAllowed(20240101));
+        assertEquals(PackedDate.NONE, constraints.previousAllowed(20240101));
+    }
+
+    @Test
+    public void loadBlackouts_readsTable() throws IOException {
+        DateConstraints constraints = new DateConstraints();
+        int count = constraints.loadBlackouts(new StringReader("# holidays\n2024-12-25\n\n20241226\n"));
+        assertEquals(2, count);
+        assertFalse(constraints.isAllowed(20241225));
+        assertFalse(constraints.isAllowed(20241226));
+        constraints.clearBlackouts();
+        assertTrue(constraints.isAllowed(20241225));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void loadBlackouts_rejectsInvalidLine() throws IOException {
+        new DateConstraints().loadBlackouts(new StringReader("2024-12-25\n2024-13-01\n"));
+    }
+
+    @Test
+    public void engine_snapsToAllowedDay() {
+        DateConstraints constraints = new DateConstraints();
+        constraints.setExcludedWeekdays(DateConstraints.WEEKENDS);
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.setConstraints(constraints);
+        engine.setDate(28, 12, 2024);
+        assertEquals(20241230, engine.getPackedDate());
+        assertEquals("30.12.2024", new String(engine.getChars()));
+
+        engine.setBounds(PackedDate.NONE, 20241229);
+        engine.setDate(28, 12, 2024);
+        assertEquals(20241227, engine.getPackedDate());
+    }
+}
@@ -0,0 +1,31 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DateFormatSpecTest {
+
+    @Test
+    public void hint_followsFormat() {
+        assertEquals("dd.mm.yyyy", DateFormatSpec.of(DateMaskEngine.FORMAT_DMY, DateMaskEngine.SEPARATOR_DOT, 'd', 'm', 'y').getHint());
+        assertEquals("yyyy-mm-dd", DateFormatSpec.of(DateMaskEngine.FORMAT_YMD, DateMaskEngine.SEPARATOR_DASH, 'd', 'm', 'y').getHint());
+        assertEquals("ММ/ДД/ГГГГ", DateFormatSpec.of(DateMaskEngine.FORMAT_MDY, DateMaskEngine.SEPARATOR_SLASH, 'Д', 'М', 'Г').getHint());
+    }
+
+    @Test
+    public void of_isInterned() {
+        DateFormatSpec spec = DateFormatSpec.of(DateMaskEngine.FORMAT_DMY, DateMaskEngine.SEPARATOR_DOT, 'T', 'M', 'J');
+        assertSame(spec, DateFormatSpec.of(DateMaskEngine.FORMAT_DMY, DateMaskEngine.SEPARATOR_DOT, 'T', 'M', 'J'));
+        assertSame(spec, spec.withFormat(DateMaskEngine.FORMAT_YMD).withFormat(DateMaskEngine.FORMAT_DMY));
+        assertSame(DateTemplate.of(DateMaskEngine.FORMAT_DMY, DateMaskEngine.SEPARATOR_SLASH),
+                spec.withSeparator(DateMaskEngine.SEPARATOR_SLASH).getTemplate());
+        assertNotSame(spec, spec.withPlaceholders('d', 'M', 'J'));
+    }
+
+    @Test
+    public void key_roundTrips() {
+        DateFormatSpec spec = DateFormatSpec.of(DateMaskEngine.FORMAT_MDY, DateMaskEngine.SEPARATOR_DASH, 'д', 'м', 'г');
+        assertSame(spec, DateFormatSpec.fromKey(spec.getKey()));
+    }
+}
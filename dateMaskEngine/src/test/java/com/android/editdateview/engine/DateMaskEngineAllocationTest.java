@@ -0,0 +1,83 @@
+package com.android.editdateview.engine;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Allocation budgets of the per-event engine paths, for every format. The budgets are bytes per
+ * event; a regression that allocates on a keystroke, paste or delete fails here.
+ */
+public class DateMaskEngineAllocationTest {
+
+    private static final int ROUNDS = 2_000;
+    private static final long BUDGET_BYTES_PER_EVENT = 0;
+    // the allocation counter has a small constant overhead per measurement
+    private static final long MEASUREMENT_SLACK_BYTES = 1024;
+
+    private static final String[] DIGITS = {"31122024", "20241231", "12312024"};
+    private static final String[] PASTES = {"31.12.2024", "2024-12-31", "12/31/2024"};
+
+    private final com.sun.management.ThreadMXBean threads = threadBean();
+
+    @Test
+    public void keystrokes_doNotAllocate() {
+        for (int format = 0; format < 3; format++) {
+            DateMaskEngine engine = engine(format);
+            String digits = DIGITS[format];
+            Runnable event = () -> {
+                engine.reset();
+                int caret = 0;
+                for (int i = 0; i < digits.length(); i++) {
+                    caret = engine.inputDigit(caret, digits.charAt(i));
+                }
+                engine.commitChange();
+            };
+            assertBudget("keystrokes, format " + format, event, digits.length());
+        }
+    }
+
+    @Test
+    public void pasteAndDelete_doNotAllocate() {
+        for (int format = 0; format < 3; format++) {
+            DateMaskEngine engine = engine(format);
+            String pasted = PASTES[format];
+            Runnable event = () -> {
+                engine.paste(pasted);
+                engine.delete(3, 7);
+                engine.commitChange();
+            };
+            assertBudget("paste and delete, format " + format, event, 2);
+        }
+    }
+
+    private void assertBudget(String name, Runnable event, int eventsPerRun) {
+        for (int i = 0; i < ROUNDS; i++) {
+            event.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            event.run();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before - MEASUREMENT_SLACK_BYTES;
+        long budget = BUDGET_BYTES_PER_EVENT * ROUNDS * eventsPerRun;
+        assertTrue(name + ": " + allocated + " bytes allocated, budget " + budget, allocated <= budget);
+    }
+
+    private static DateMaskEngine engine(int format) {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.configure(format, DateMaskEngine.SEPARATOR_DOT);
+        return engine;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        return threads;
+    }
+}
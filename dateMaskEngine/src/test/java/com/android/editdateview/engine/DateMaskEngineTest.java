@@ -0,0 +1,190 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DateMaskEngineTest {
+
+    private static String text(DateMaskEngine engine) {
+        return new String(engine.getChars());
+    }
+
+    private static int type(DateMaskEngine engine, String digits) {
+        int caret = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            caret = engine.inputDigit(caret, digits.charAt(i));
+        }
+        return caret;
+    }
+
+    @Test
+    public void typing_dmy_buildsDate() {
+        DateMaskEngine engine = new DateMaskEngine();
+        int caret = type(engine, "31122024");
+        assertEquals(10, caret);
+        assertEquals("31.12.2024", text(engine));
+        assertEquals(31, engine.getDay());
+        assertEquals(12, engine.getMonth());
+        assertEquals(2024, engine.getYear());
+    }
+
+    @Test
+    public void typing_ymd_clampsDayToMonthLength() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.configure(DateMaskEngine.FORMAT_YMD, DateMaskEngine.SEPARATOR_DASH);
+        type(engine, "20230231");
+        assertEquals("2023-02-28", text(engine));
+        assertEquals(28, engine.getDay());
+    }
+
+    @Test
+    public void separator_completesSegmentAndMovesCaret() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.configure(DateMaskEngine.FORMAT_MDY, DateMaskEngine.SEPARATOR_SLASH);
+        int caret = engine.inputSeparator(0);
+        assertEquals(3, caret);
+        assertEquals(1, engine.getMonth());
+        assertEquals("01/  /    ", text(engine));
+    }
+
+    @Test
+    public void delete_allDigits_resetsDate() {
+        DateMaskEngine engine = new DateMaskEngine();
+        type(engine, "0101");
+        assertTrue(engine.delete(3, 2));
+        assertEquals("01.  .    ", text(engine));
+        assertFalse(engine.delete(0, 10));
+        assertFalse(engine.hasDate());
+    }
+
+    @Test
+    public void paste_acceptsAnySeparator() {
+        DateMaskEngine engine = new DateMaskEngine();
+        assertEquals(DateMaskEngine.DATE_CHANGED, engine.paste("05/06-2021"));
+        assertEquals("05.06.2021", text(engine));
+        assertEquals(DateMaskEngine.DATE_UNCHANGED, engine.paste("2021-06-05"));
+        assertEquals(DateMaskEngine.DATE_INVALID, engine.paste("2021-6-05"));
+        assertTrue(engine.complete());
+        assertEquals(5, engine.getDay());
+        assertEquals(6, engine.getMonth());
+        assertEquals(2021, engine.getYear());
+    }
+
+    @Test
+    public void commitChange_reportsOncePerEdit() {
+        DateMaskEngine engine = new DateMaskEngine();
+        assertFalse(engine.commitChange());
+        engine.paste("01.02.2003");
+        assertTrue(engine.commitChange());
+        assertFalse(engine.commitChange());
+
+        engine.setDate(1, 2, 2003);
+        assertFalse(engine.commitChange());
+
+        engine.reset();
+        assertFalse(engine.commitChange());
+        assertEquals(DateMaskEngine.DATE_CHANGED, engine.paste("01.02.2003"));
+        assertTrue(engine.commitChange());
+    }
+
+    @Test
+    public void iso_writtenIntoCallerBuffers() {
+        DateMaskEngine engine = new DateMaskEngine();
+        char[] dst = new char[12];
+        StringBuilder out = new StringBuilder();
+        assertEquals(0, engine.getDateIso(dst, 1));
+        assertFalse(engine.appendDateIso(out));
+
+        engine.setDate(7, 3, 999);
+        assertEquals(10, engine.getDateIso(dst, 1));
+        assertEquals("0999-03-07", new String(dst, 1, 10));
+        assertTrue(engine.appendDateIso(out));
+        assertEquals("0999-03-07", out.toString());
+        assertEquals("0999-03-07", engine.getDateIso());
+    }
+
+    @Test
+    public void configure_rendersDateWithNewTemplate() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.setDate(5, 11, 2020);
+        assertTrue(engine.configure(DateMaskEngine.FORMAT_YMD, DateMaskEngine.SEPARATOR_SLASH));
+        assertEquals("2020/11/05", text(engine));
+        assertEquals(11, engine.getMonth());
+    }
+
+    @Test
+    public void bounds_clampTypedAndSetDates() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.setBounds(20240115, 20250115);
+        type(engine, "01012024");
+        assertEquals("15.01.2024", text(engine));
+        assertEquals(20240115, engine.getPackedDate());
+
+        engine.setDate(1, 1, 2030);
+        assertEquals("15.01.2025", text(engine));
+
+        engine.reset();
+        engine.configure(DateMaskEngine.FORMAT_YMD, DateMaskEngine.SEPARATOR_DASH);
+        type(engine, "2019");
+        assertEquals("2024-  -  ", text(engine));
+    }
+
+    @Test
+    public void setBounds_clampsCurrentDate() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.setDate(31, 12, 2024);
+        engine.setBounds(PackedDate.NONE, 20240630);
+        assertEquals("30.06.2024", text(engine));
+        assertTrue(engine.commitChange());
+    }
+
+    @Test
+    public void setBounds_openEpochDayBound() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.setBounds(PackedDate.fromEpochDay(PackedDate.NO_EPOCH_DAY), PackedDate.fromEpochDay(19904)); // 2024-06-30
+        assertEquals(PackedDate.NONE, engine.getMinDate());
+        engine.setDate(1, 1, 1900);
+        assertEquals(19000101, engine.getPackedDate());
+        engine.setDate(1, 1, 2025);
+        assertEquals(20240630, engine.getPackedDate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setBounds_rejectsInvertedRange() {
+        new DateMaskEngine().setBounds(20250101, 20240101);
+    }
+
+    @Test
+    public void restore_isSilentAndKeepsPartialDate() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.restore(PackedDate.of(2024, 0, 5));
+        assertEquals("05.  .2024", text(engine));
+        assertFalse(engine.commitChange());
+    }
+
+    @Test
+    public void dirty_coversOnlyChangedChars() {
+        DateMaskEngine engine = new DateMaskEngine();
+        engine.setDate(31, 1, 2024);
+        engine.clearDirty();
+
+        // 31 stays valid for March: only the month chars change
+        engine.setDate(31, 3, 2024);
+        assertEquals(DateMaskEngine.SEGMENT_MONTH, engine.getDirtySegments());
+        assertEquals(4, engine.getDirtyStart());
+        assertEquals(5, engine.getDirtyEnd());
+        engine.clearDirty();
+
+        // the day depends on the month: 31 becomes 30 for April
+        engine.setDate(31, 4, 2024);
+        assertEquals(DateMaskEngine.SEGMENT_DAY | DateMaskEngine.SEGMENT_MONTH, engine.getDirtySegments());
+        assertEquals(1, engine.getDirtyStart());
+        assertEquals(5, engine.getDirtyEnd());
+        engine.clearDirty();
+
+        engine.setDate(30, 4, 2024);
+        assertEquals(0, engine.getDirtySegments());
+        assertEquals(engine.getTemplate().getLength(), engine.getDirtyStart());
+    }
+}
@@ -0,0 +1,59 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DateNormalizerTest {
+
+    @Test
+    public void normalize_clampsLikeTheWidget() {
+        assertEquals(20991231, DateNormalizer.normalize(20991399));
+        assertEquals(21000101, DateNormalizer.normalize(PackedDate.of(2500, 1, 1)));
+        assertEquals(20230228, DateNormalizer.normalize(20230231));
+        assertEquals(10101, DateNormalizer.normalize(PackedDate.of(0, 0, 0)));
+        assertEquals(DateParser.INVALID, DateNormalizer.normalize(DateParser.INVALID));
+    }
+
+    @Test
+    public void normalize_matchesEngine() {
+        DateMaskEngine engine = new DateMaskEngine();
+        for (int year = 0; year <= 2200; year += 37) {
+            for (int month = 0; month <= 14; month++) {
+                for (int day = 0; day <= 33; day++) {
+                    engine.setDate(day, month, year);
+                    assertEquals(engine.getPackedDate(), DateNormalizer.normalize(year, month, day));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void normalizeStrings_parsesAndMarksInvalid() {
+        CharSequence[] src = {"2024-02-30", "31.04.2024", "garbage"};
+        int[] dst = new int[3];
+        DateNormalizer.normalize(src, 0, DateMaskEngine.FORMAT_DMY, dst, 0, src.length);
+        assertArrayEquals(new int[]{20240229, 20240430, DateParser.INVALID}, dst);
+    }
+
+    @Test
+    public void normalizeParallel_matchesSequential() {
+        int count = DateNormalizer.PARALLEL_CHUNK * 5 + 17;
+        int[] src = new int[count];
+        for (int i = 0; i < count; i++) {
+            src[i] = PackedDate.of(1900 + i % 300, i % 15, i % 35);
+        }
+        int[] sequential = new int[count];
+        int[] parallel = new int[count];
+        DateNormalizer.normalize(src, 0, sequential, 0, count);
+        DateNormalizer.normalizeParallel(src, parallel);
+        assertArrayEquals(sequential, parallel);
+
+        CharSequence[] strings = new CharSequence[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = String.format("%02d.%02d.%04d", i % 35, i % 15, 1900 + i % 300);
+        }
+        DateNormalizer.normalizeParallel(strings, DateMaskEngine.FORMAT_DMY, parallel);
+        assertArrayEquals(sequential, parallel);
+    }
+}
@@ -0,0 +1,55 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DateParserTest {
+
+    @Test
+    public void parse_yearFirst_acceptedForEveryFormat() {
+        assertEquals(20241231, DateParser.parse("2024-12-31", DateMaskEngine.FORMAT_DMY));
+        assertEquals(20241231, DateParser.parse("2024/12/31", DateMaskEngine.FORMAT_MDY));
+        assertEquals(20241231, DateParser.parse("2024.12.31", DateMaskEngine.FORMAT_YMD));
+    }
+
+    @Test
+    public void parse_dayOrMonthFirst_followsFormat() {
+        assertEquals(20240203, DateParser.parse("03.02.2024", DateMaskEngine.FORMAT_DMY));
+        assertEquals(20240302, DateParser.parse("03/02/2024", DateMaskEngine.FORMAT_MDY));
+    }
+
+    @Test
+    public void parse_compact_followsFormat() {
+        assertEquals(20241231, DateParser.parse("20241231", DateMaskEngine.FORMAT_YMD));
+        assertEquals(20241231, DateParser.parse("31122024", DateMaskEngine.FORMAT_DMY));
+        assertEquals(20241231, DateParser.parse("12312024", DateMaskEngine.FORMAT_MDY));
+    }
+
+    @Test
+    public void parse_keepsFieldsAsWritten() {
+        assertEquals(20241399, DateParser.parse("2024-13-99", DateMaskEngine.FORMAT_YMD));
+    }
+
+    @Test
+    public void parse_rejectsMalformedInput() {
+        assertEquals(DateParser.INVALID, DateParser.parse(null, DateMaskEngine.FORMAT_DMY));
+        assertEquals(DateParser.INVALID, DateParser.parse("2024-1-31", DateMaskEngine.FORMAT_DMY));
+        assertEquals(DateParser.INVALID, DateParser.parse("2024_12_31", DateMaskEngine.FORMAT_DMY));
+        assertEquals(DateParser.INVALID, DateParser.parse("31.12.20x4", DateMaskEngine.FORMAT_DMY));
+        assertEquals(DateParser.INVALID, DateParser.parse("2024123", DateMaskEngine.FORMAT_YMD));
+    }
+
+    @Test
+    public void parse_range() {
+        assertEquals(20240101, DateParser.parse("x2024-01-01x", 1, 11, DateMaskEngine.FORMAT_DMY));
+    }
+
+    @Test
+    public void parseIso_acceptsOnlyIso() {
+        assertEquals(20240101, DateParser.parseIso("2024-01-01"));
+        assertEquals(20240101, DateParser.parseIso("20240101"));
+        assertEquals(DateParser.INVALID, DateParser.parseIso("2024/01/01"));
+        assertEquals(DateParser.INVALID, DateParser.parseIso("01.01.2024"));
+    }
+}
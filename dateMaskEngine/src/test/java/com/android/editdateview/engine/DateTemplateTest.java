@@ -0,0 +1,46 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DateTemplateTest {
+
+    @Test
+    public void segmentTable_describesLayout() {
+        DateTemplate template = DateTemplate.of(DateMaskEngine.FORMAT_MDY, DateMaskEngine.SEPARATOR_SLASH);
+        assertEquals(10, template.getLength());
+        assertEquals(8, template.getDigitCount());
+        assertEquals(DateMaskEngine.SEGMENT_DAY, template.getSegmentKind(1));
+        assertEquals(1, template.getSegmentIndex(DateMaskEngine.SEGMENT_DAY));
+        assertEquals(3, template.getSegmentOffset(1));
+        assertEquals(4, template.getSegmentWidth(2));
+        assertTrue(template.isSeparatorPosition(2));
+        assertFalse(template.isSeparatorPosition(3));
+    }
+
+    @Test
+    public void segmentValues_mapToPackedDateFields() {
+        DateTemplate template = DateTemplate.of(DateMaskEngine.FORMAT_YMD, DateMaskEngine.SEPARATOR_DASH);
+        int date = PackedDate.of(2024, 2, 29);
+        assertEquals(2024, template.getSegmentValue(0, date));
+        assertEquals(2, template.getSegmentValue(1, date));
+        assertEquals(29, template.getSegmentValue(2, date));
+        assertEquals(PackedDate.of(2024, 11, 29), template.withSegmentValue(1, date, 11));
+        assertEquals(PackedDate.of(0, 2, 29), template.withSegmentValue(0, date, 0));
+
+        assertEquals(DateNormalizer.MAX_YEAR, template.clampSegment(0, 9999));
+        assertEquals(12, template.clampSegment(1, 13));
+        assertEquals(1, template.clampSegment(2, 0));
+        assertEquals(31, template.clampSegment(2, 45));
+    }
+
+    @Test
+    public void render_writesDateInLayout() {
+        char[] dst = new char[10];
+        DateTemplate.of(DateMaskEngine.FORMAT_DMY, DateMaskEngine.SEPARATOR_DOT).render(dst, PackedDate.of(999, 3, 7));
+        assertEquals("07.03.0999", new String(dst));
+        DateTemplate.of(DateMaskEngine.FORMAT_MDY, DateMaskEngine.SEPARATOR_SLASH).render(dst, PackedDate.of(2024, 12, 31));
+        assertEquals("12/31/2024", new String(dst));
+    }
+}
@@ -0,0 +1,41 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InputMetricsTest {
+
+    @Test
+    public void latency_bucketsByPowerOfTwoMicros() {
+        assertEquals(0, InputMetrics.bucketOf(999));
+        assertEquals(1, InputMetrics.bucketOf(1_000));
+        assertEquals(2, InputMetrics.bucketOf(3_999));
+        assertEquals(InputMetrics.BUCKETS - 1, InputMetrics.bucketOf(10_000_000_000L));
+        assertEquals(4_000, InputMetrics.bucketUpperBoundNanos(2));
+    }
+
+    @Test
+    public void snapshot_copiesValues() {
+        InputMetrics metrics = new InputMetrics();
+        metrics.increment(InputMetrics.KEYSTROKES);
+        metrics.increment(InputMetrics.KEYSTROKES);
+        metrics.increment(InputMetrics.PASTES);
+        for (int i = 0; i < 9; i++) {
+            metrics.recordLatency(500);
+        }
+        metrics.recordLatency(50_000);
+
+        InputMetrics.Snapshot snapshot = metrics.snapshot();
+        metrics.reset();
+        assertEquals(2, snapshot.getCount(InputMetrics.KEYSTROKES));
+        assertEquals(1, snapshot.getCount(InputMetrics.PASTES));
+        assertEquals(0, snapshot.getCount(InputMetrics.REJECTED_INPUTS));
+        assertEquals(10, snapshot.getLatencyCount());
+        assertEquals(54_500, snapshot.getTotalLatencyNanos());
+        assertEquals(50_000, snapshot.getMaxLatencyNanos());
+        assertEquals(1_000, snapshot.getPercentileUpperBoundNanos(90));
+        assertEquals(64_000, snapshot.getPercentileUpperBoundNanos(99));
+        assertEquals(0, metrics.snapshot().getLatencyCount());
+    }
+}
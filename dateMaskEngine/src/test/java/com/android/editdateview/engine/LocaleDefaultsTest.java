@@ -0,0 +1,68 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class LocaleDefaultsTest {
+
+    @Test
+    public void parse_patterns() {
+        assertEquals(DateMaskEngine.FORMAT_MDY, LocaleDefaults.parseFormat("M/d/yy"));
+        assertEquals(DateMaskEngine.FORMAT_DMY, LocaleDefaults.parseFormat("dd.MM.yy"));
+        assertEquals(DateMaskEngine.FORMAT_YMD, LocaleDefaults.parseFormat("y-MM-dd"));
+        assertEquals(DateMaskEngine.FORMAT_YMD, LocaleDefaults.parseFormat("yy. M. d."));
+        assertEquals(DateMaskEngine.SEPARATOR_SLASH, LocaleDefaults.parseSeparator("M/d/yy"));
+        assertEquals(DateMaskEngine.SEPARATOR_DOT, LocaleDefaults.parseSeparator("yy. M. d."));
+        assertEquals(DateMaskEngine.SEPARATOR_DASH, LocaleDefaults.parseSeparator("'d.' dd-MM-y"));
+    }
+
+    @Test
+    public void resolve_usesLocaleData() {
+        // the locale data differs between JDK and Android releases, so the expected values come from it too
+        for (Locale locale : new Locale[]{Locale.US, Locale.UK, Locale.GERMANY, new Locale("ru", "RU"), Locale.JAPAN, Locale.KOREA}) {
+            String pattern = DateTimeFormatterBuilder.getLocalizedDateTimePattern(
+                    FormatStyle.SHORT, null, IsoChronology.INSTANCE, locale);
+            DateFormatSpec spec = LocaleDefaults.resolve(locale);
+            assertEquals(pattern, expectedFormat(pattern), spec.getFormat());
+            assertEquals(pattern, expectedSeparator(pattern), spec.getSeparator());
+        }
+        DateFormatSpec de = LocaleDefaults.resolve(Locale.GERMANY);
+        assertEquals('t', de.getDayPlaceholder());
+        assertEquals('j', de.getYearPlaceholder());
+        assertEquals('г', LocaleDefaults.resolve(new Locale("ru", "RU")).getYearPlaceholder());
+        assertEquals('y', LocaleDefaults.resolve(Locale.US).getYearPlaceholder());
+    }
+
+    @Test
+    public void resolve_isCachedUntilInvalidated() {
+        DateFormatSpec spec = LocaleDefaults.resolve(Locale.JAPAN);
+        assertSame(spec, LocaleDefaults.resolve(Locale.JAPAN));
+        LocaleDefaults.invalidate();
+        assertEquals(spec.getHint(), LocaleDefaults.resolve(Locale.JAPAN).getHint());
+    }
+
+    private static int expectedFormat(String pattern) {
+        int year = pattern.indexOf('y');
+        int month = pattern.indexOf('M');
+        int day = pattern.indexOf('d');
+        if (year < month && year < day) {
+            return DateMaskEngine.FORMAT_YMD;
+        }
+        return month < day ? DateMaskEngine.FORMAT_MDY : DateMaskEngine.FORMAT_DMY;
+    }
+
+    private static char expectedSeparator(String pattern) {
+        for (char c : pattern.toCharArray()) {
+            if (c == '.' || c == '/' || c == '-') {
+                return c;
+            }
+        }
+        return DateMaskEngine.SEPARATOR_DOT;
+    }
+}
@@ -0,0 +1,53 @@
+package com.android.editdateview.engine;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class PackedDateTest {
+
+    @Test
+    public void fields_roundTrip() {
+        int packed = PackedDate.of(2024, 2, 29);
+        assertEquals(20240229, packed);
+        assertEquals(2024, PackedDate.getYear(packed));
+        assertEquals(2, PackedDate.getMonth(packed));
+        assertEquals(29, PackedDate.getDay(packed));
+        assertEquals(20251229, PackedDate.withMonth(PackedDate.withYear(packed, 2025), 12));
+        assertEquals(20240201, PackedDate.withDay(packed, 1));
+    }
+
+    @Test
+    public void epochDay_matchesLocalDate() {
+        for (long epochDay = LocalDate.of(1, 1, 1).toEpochDay(); epochDay <= LocalDate.of(2100, 12, 31).toEpochDay(); epochDay += 7) {
+            LocalDate expected = LocalDate.ofEpochDay(epochDay);
+            int packed = PackedDate.fromEpochDay(epochDay);
+            assertEquals(PackedDate.of(expected.getYear(), expected.getMonthValue(), expected.getDayOfMonth()), packed);
+            assertEquals(epochDay, PackedDate.toEpochDay(packed));
+        }
+    }
+
+    @Test
+    public void incompleteDate_hasNoEpochDay() {
+        assertEquals(PackedDate.NO_EPOCH_DAY, PackedDate.toEpochDay(PackedDate.of(2024, 0, 1)));
+        assertEquals(PackedDate.NONE, PackedDate.fromEpochDay(PackedDate.NO_EPOCH_DAY));
+        assertFalse(PackedDate.isComplete(PackedDate.NONE));
+    }
+
+    @Test
+    public void isValid_checksMonthLength() {
+        assertTrue(PackedDate.isValid(20000229));
+        assertFalse(PackedDate.isValid(19000229));
+        assertFalse(PackedDate.isValid(20241301));
+        assertFalse(PackedDate.isValid(20240431));
+    }
+
+    @Test
+    public void compare_followsCalendarOrder() {
+        assertTrue(PackedDate.isBefore(20231231, 20240101));
+        assertTrue(PackedDate.isAfter(20240201, 20240131));
+        assertEquals(0, PackedDate.compare(20240101, 20240101));
+    }
+}
@@ -36,9 +36,6 @@ public class MainActivity extends AppCompatActivity {
         datePickerDialog = new DatePickerDialog(this);
         calendarButton = findViewById(R.id.calendarBtn);
            editDate = findViewById(R.id.editTextNumber);
-        editDate.setDateViewFormat(EditDateView.DefaultSettings.DATE_VIEW_FORMAT_DMY);
-        editDate.setDayPlaceholder('*');
-        editDate.setDateSeparator(EditDateView.DefaultSettings.DATE_SEPARATOR_DOT);
         setListeners();
     }
 
@@ -0,0 +1,172 @@
+package com.android.editdateview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.editdateview.engine.DateFormatSpec;
+import com.android.editdateview.engine.DateNormalizer;
+import com.android.editdateview.engine.PackedDate;
+
+/**
+ * Read-only date display for long lists.
+ * <p>
+ * Shows what an {@link EditDateView} with the same {@link DateFormatSpec} shows for a complete
+ * date, or its hint while there is none, but draws the chars directly on the canvas: no Editable,
+ * no text layout, no input handling. Glyph widths are measured once per spec and text size and
+ * the view is always as wide as the widest date, so changing the date only redraws.
+ */
+public class DateMaskView extends View {
+
+    private static final char[] DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+    private static final float DEFAULT_TEXT_SIZE_SP = 14;
+    private static final int DEFAULT_TEXT_COLOR = 0xDE000000;
+    private static final int DEFAULT_HINT_COLOR = 0x61000000;
+
+    private final float[] digitWidths = new float[DIGITS.length];
+    private char[] chars;
+    private float[] widths;
+    private final TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetricsInt fontMetrics = new Paint.FontMetricsInt();
+    private DateFormatSpec spec;
+    private int date = PackedDate.NONE;
+    private int textColor = DEFAULT_TEXT_COLOR;
+    private int hintColor = DEFAULT_HINT_COLOR;
+    private float textWidth;
+
+    public DateMaskView(@NonNull Context context) {
+        super(context);
+        init(null, 0);
+    }
+
+    public DateMaskView(@NonNull Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs, 0);
+    }
+
+    public DateMaskView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(attrs, defStyleAttr);
+    }
+
+    private void init(@Nullable AttributeSet attrs, int defStyleAttr) {
+        spec = EditDateView.readAttributes(getContext(), attrs, defStyleAttr);
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, DEFAULT_TEXT_SIZE_SP,
+                getResources().getDisplayMetrics());
+        if (attrs != null) {
+            TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.DateMaskView, defStyleAttr, 0);
+            try {
+                textSize = a.getDimension(R.styleable.DateMaskView_android_textSize, textSize);
+                textColor = a.getColor(R.styleable.DateMaskView_android_textColor, textColor);
+                hintColor = a.getColor(R.styleable.DateMaskView_android_textColorHint, hintColor);
+            } finally {
+                a.recycle();
+            }
+        }
+        paint.setTextSize(textSize);
+        measureGlyphs();
+    }
+
+    /**
+     * @param packedYmd date as {@code yyyyMMdd} int, normalized like in {@link EditDateView}; an
+     *                  incomplete date (e.g. {@link PackedDate#NONE}) shows the hint
+     */
+    public void setPackedYmd(int packedYmd) {
+        int normalized = PackedDate.isComplete(packedYmd) ? DateNormalizer.normalize(packedYmd) : PackedDate.NONE;
+        if (normalized == date) {
+            return;
+        }
+        date = normalized;
+        prepareChars();
+        invalidate();
+    }
+
+    public int getPackedYmd() {
+        return date;
+    }
+
+    public void setDateFormatSpec(@NonNull DateFormatSpec spec) {
+        if (spec == this.spec) {
+            return;
+        }
+        this.spec = spec;
+        measureGlyphs();
+        requestLayout();
+        invalidate();
+    }
+
+    public DateFormatSpec getDateFormatSpec() {
+        return spec;
+    }
+
+    public void setTextSize(float px) {
+        paint.setTextSize(px);
+        measureGlyphs();
+        requestLayout();
+        invalidate();
+    }
+
+    public void setTextColor(int color) {
+        textColor = color;
+        invalidate();
+    }
+
+    public void setHintTextColor(int color) {
+        hintColor = color;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getPaddingLeft() + (int) Math.ceil(textWidth) + getPaddingRight();
+        int height = getPaddingTop() + fontMetrics.descent - fontMetrics.ascent + getPaddingBottom();
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        paint.setColor(PackedDate.isComplete(date) ? textColor : hintColor);
+        canvas.drawText(chars, 0, chars.length, getPaddingLeft(), getPaddingTop() - fontMetrics.ascent, paint);
+    }
+
+    /**
+     * Width of the widest text: every digit position takes the widest digit or its placeholder.
+     */
+    private void measureGlyphs() {
+        paint.getFontMetricsInt(fontMetrics);
+        paint.getTextWidths(DIGITS, 0, DIGITS.length, digitWidths);
+        float digitWidth = 0;
+        for (float width : digitWidths) {
+            digitWidth = Math.max(digitWidth, width);
+        }
+        int length = spec.getTemplate().getLength();
+        if (chars == null || chars.length != length) {
+            chars = new char[length];
+            widths = new float[length];
+        }
+        spec.getHint().getChars(0, length, chars, 0);
+        paint.getTextWidths(chars, 0, length, widths);
+        float total = 0;
+        for (int i = 0; i < length; i++) {
+            total += spec.getTemplate().isSeparatorPosition(i) ? widths[i] : Math.max(widths[i], digitWidth);
+        }
+        textWidth = total;
+        prepareChars();
+    }
+
+    private void prepareChars() {
+        if (PackedDate.isComplete(date)) {
+            spec.getTemplate().render(chars, date);
+        } else {
+            spec.getHint().getChars(0, chars.length, chars, 0);
+        }
+    }
+}
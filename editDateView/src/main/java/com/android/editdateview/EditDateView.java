@@ -1,72 +1,123 @@
 package com.android.editdateview;
 
-import static java.lang.Integer.parseInt;
-
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.Trace;
 import android.text.Editable;
 import android.text.InputFilter;
+import android.text.Selection;
 import android.text.Spanned;
 import android.text.TextWatcher;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.KeyEvent;
 import android.view.View;
+import android.view.autofill.AutofillValue;
+import android.view.inputmethod.BaseInputConnection;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+import android.view.inputmethod.InputConnectionWrapper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.AppCompatEditText;
 
+import com.android.editdateview.engine.DateChangeDispatcher;
+import com.android.editdateview.engine.DateConstraints;
+import com.android.editdateview.engine.DateFormatSpec;
+import com.android.editdateview.engine.DateMaskEngine;
+import com.android.editdateview.engine.InputMetrics;
+import com.android.editdateview.engine.LocaleDefaults;
+import com.android.editdateview.engine.PackedDate;
+
+import java.nio.CharBuffer;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 public class EditDateView extends AppCompatEditText {
 
-    public static final int POSITION4 = 4;
-    public static final int POSITION7 = 7;
-    public static final int POSITION2 = 2;
-    public static final int POSITION5 = 5;
     public static final String SEPARATOR_FORMAT_LOG_MESSAGE = "format must be \".\", \"/\" or \"-\". Use constants from DefaultSettings";
     public static final int MAX_LENGTH_FOR_FILTER = 11;
-    private int day;
-    private int month;
-    private int year;
-    private final char[] chars = new char[10];
+    public static final String BOUNDS_LOG_MESSAGE = "bounds must be valid yyyyMMdd dates (or PackedDate.NONE) and min must not be after max";
+    private final DateMaskEngine engine = new DateMaskEngine();
+    private final CharBuffer charsSequence = CharBuffer.wrap(engine.getChars());
     private boolean isUpdatingText = false;
     private boolean isPasting = false;
-    private OnDateChange onDateChangeListener;
-
-    private static final char CHAR_PLACEHOLDER = ' ';
+    private boolean isFilteringRange = false;
+    private boolean isRestoringState = false;
+    private boolean incrementalRendering = true;
+    private int pendingDeletionStart;
+    private int pendingDeletionCount;
+    private boolean notifyOncePerFrame = false;
+    private boolean isFrameNotificationPending = false;
+    private final Choreographer.FrameCallback frameNotification = frameTimeNanos -> {
+        isFrameNotificationPending = false;
+        notifyDateChangeListener();
+    };
+    private final DateChangeDispatcher dateChangeDispatcher = new DateChangeDispatcher();
+    private final char[] burstRing = new char[BURST_CAPACITY];
+    private final char[] burstChars = new char[BURST_CAPACITY];
+    private final CharBuffer burstSequence = CharBuffer.wrap(burstChars);
+    private final Runnable burstFlush = this::flushBurst;
+    private int burstHead;
+    private int burstSize;
+    private long lastBurstKeyTime = NO_KEY_TIME;
+    private long burstIntervalMillis = 0;
+    private int burstTerminatorKeyCode = KeyEvent.KEYCODE_UNKNOWN;
+    @Nullable
+    private InputMetrics metrics;
 
-    private int dateViewFormat = DefaultSettings.DATE_VIEW_FORMAT_DMY;
-    private char dateSeparator = DefaultSettings.DATE_SEPARATOR_DOT;
-    private char dayPlaceholder = DefaultSettings.DAY_PLACEHOLDER_EN;
-    private char monthPlaceholder = DefaultSettings.MONTH_PLACEHOLDER_EN;
-    private char yearPlaceholder = DefaultSettings.YEAR_PLACEHOLDER_EN;
+    private DateFormatSpec spec;
 
     private static final String TAG = "EditDate";
+    private static final int KEEP_SELECTION = -1;
+    private static final int CARET_CLEARED = -2;
+    private static final int BURST_CAPACITY = 32;
+    private static final long NO_KEY_TIME = Long.MIN_VALUE;
+    private static final int NO_COMPOSING = -1;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    // android.os.Trace section names, stable so that system traces can be compared across versions
+    private static final String TRACE_FILTER = "EditDateView#filter";
+    private static final String TRACE_ADDITION = "EditDateView#handleAddition";
+    private static final String TRACE_SEPARATOR = "EditDateView#handleSeparatorsInput";
+    private static final String TRACE_DELETION = "EditDateView#handleDeletion";
+    private static final String TRACE_PASTE = "EditDateView#handlePasteDate";
+    private static final String TRACE_CHARS_CHECK = "EditDateView#charsCheck";
+    private static final String TRACE_RENDER = "EditDateView#setTextCustom";
+    private static final String TRACE_DISPATCH = "EditDateView#dispatch";
+    private static final String TRACE_COMMIT = "EditDateView#commitText";
+    private static final String TRACE_DELETE_SURROUNDING = "EditDateView#deleteSurroundingText";
+    private static final String TRACE_BURST = "EditDateView#flushBurst";
     private static final String MESSAGE_FOR_LOG = "Placeholder must be [a-zA-Zа-яА-Я]";
 
-    public interface OnDateChange {
+    public interface OnDateChange extends DateChangeDispatcher.Listener {
         public void onChange(int day, int month, int year);
     }
 
     public EditDateView(@NonNull Context context) {
-
         super(context);
-
-        init();
+        init(null, 0);
     }
 
     public EditDateView(@NonNull Context context, @Nullable AttributeSet attrs) {
-
         super(context, attrs);
-        Log.i(TAG, "attrs: " );
-        init();
+        init(attrs, 0);
     }
 
     public EditDateView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        defStyleAttr=
-                Log.i(TAG, "attrs: " + defStyleAttr);
-        init();
+        init(attrs, defStyleAttr);
+    }
+
+    @Override
+    public InputConnection onCreateInputConnection(EditorInfo outAttrs) {
+        InputConnection target = super.onCreateInputConnection(outAttrs);
+        return target == null ? null : new DateInputConnection(target);
     }
 
     @Override
@@ -76,42 +127,149 @@ public class EditDateView extends AppCompatEditText {
 
     }
 
+    /**
+     * Adds a listener called on the UI thread. Any number of listeners can be added
+     */
     public void addOnDateChangeListener(OnDateChange listener) {
-        onDateChangeListener = listener;
+        dateChangeDispatcher.add(listener);
+    }
+
+    /**
+     * Adds a listener called on {@code executor}. While a call is queued newer dates replace the
+     * queued one, so a slow listener only gets the latest date and never blocks the input
+     */
+    public void addOnDateChangeListener(OnDateChange listener, @Nullable Executor executor) {
+        dateChangeDispatcher.add(listener, executor);
+    }
+
+    /**
+     * Like {@link #addOnDateChangeListener(OnDateChange, Executor)}, but the view keeps only a weak
+     * reference to the listener
+     */
+    public void addWeakOnDateChangeListener(OnDateChange listener, @Nullable Executor executor) {
+        dateChangeDispatcher.addWeak(listener, executor);
+    }
+
+    public boolean removeOnDateChangeListener(OnDateChange listener) {
+        return dateChangeDispatcher.remove(listener);
+    }
+
+    public void removeAllOnDateChangeListeners() {
+        dateChangeDispatcher.clear();
+    }
+
+    /**
+     * When enabled, date changes are delivered at most once per frame through {@link Choreographer}
+     * (with the date of that moment) instead of once per edit
+     */
+    public void setNotifyOncePerFrame(boolean notifyOncePerFrame) {
+        this.notifyOncePerFrame = notifyOncePerFrame;
+    }
+
+    /**
+     * Burst mode for keyboard-wedge (HID) barcode scanners. Digit and separator key events that
+     * follow the previous key within {@code maxKeyIntervalMillis} (by {@link KeyEvent#getEventTime()})
+     * are buffered and applied together once no key arrived for {@code maxKeyIntervalMillis}, or when
+     * {@code terminatorKeyCode} (e.g. {@link KeyEvent#KEYCODE_ENTER}) is pressed: one parse, one
+     * render and one date change for the rest of the scan. The first key and keys typed slower than
+     * that are applied at once as usual
+     *
+     * @param maxKeyIntervalMillis 0 disables burst mode
+     * @param terminatorKeyCode    {@link KeyEvent#KEYCODE_UNKNOWN} for no terminator
+     */
+    public void setBurstMode(long maxKeyIntervalMillis, int terminatorKeyCode) {
+        flushBurst();
+        burstIntervalMillis = Math.max(maxKeyIntervalMillis, 0);
+        lastBurstKeyTime = NO_KEY_TIME;
+        burstTerminatorKeyCode = terminatorKeyCode;
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (burstIntervalMillis == 0) {
+            return super.onKeyDown(keyCode, event);
+        }
+        if (keyCode == burstTerminatorKeyCode && burstSize > 0) {
+            flushBurst();
+            return true;
+        }
+        char c = (char) event.getUnicodeChar();
+        if (!Character.isDigit(c) && !DefaultSettings.validateSeparator(c)) {
+            // keeps the order of buffered chars and e.g. a following DEL
+            flushBurst();
+            lastBurstKeyTime = NO_KEY_TIME;
+            return super.onKeyDown(keyCode, event);
+        }
+        long eventTime = event.getEventTime();
+        boolean isFast = lastBurstKeyTime != NO_KEY_TIME && eventTime - lastBurstKeyTime <= burstIntervalMillis;
+        lastBurstKeyTime = eventTime;
+        if (burstSize == 0 && !isFast) {
+            return super.onKeyDown(keyCode, event);
+        }
+        if (burstSize == BURST_CAPACITY) {
+            flushBurst();
+        }
+        burstRing[(burstHead + burstSize) % BURST_CAPACITY] = c;
+        burstSize++;
+        removeCallbacks(burstFlush);
+        postDelayed(burstFlush, burstIntervalMillis);
+        return true;
+    }
+
+    /**
+     * Collects input counters and keystroke latencies into {@code metrics} (e.g.
+     * {@link InputMetrics#global()}), null to stop collecting
+     */
+    public void setInputMetrics(@Nullable InputMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Nullable
+    public InputMetrics getInputMetrics() {
+        return metrics;
     }
 
     @Override
     public void setText(CharSequence text, BufferType type) {
-        if (text.length() != 10 || !isValidDateFormat(text.toString())) {
+        if (engine == null) {
+            // TextView's constructor, before the fields of this class are initialized: only set up
+            // the empty Editable
+            super.setText("", type);
             return;
         }
-        setDateStr(text.toString());
+        if (text == null || isRestoringState) {
+            return;
+        }
+        applyDateString(text);
     }
 
+    /**
+     * Sets the date from a string. Accepted are ISO 8601 ({@code yyyy-MM-dd}), the day/month/year
+     * order of the current format with ".", "/" or "-" as separator and the compact forms without
+     * separators (e.g. {@code 20241231} for DATE_VIEW_FORMAT_YMD)
+     *
+     * @return false if the string is not a date
+     */
     public boolean setDateStr(@NonNull String date) {
-        if (date.length() != 10 || !isValidDateFormat(date)) {
-            return false;
-        }
-        int yearInput = parseInt(date.substring(0, 4));
-        int monthInput = parseInt(date.substring(5, 7));
-        int dayInput = parseInt(date.substring(8, 10));
-
-        boolean dateChanged = updateDate(dayInput, monthInput, yearInput);
+        return applyDateString(date);
+    }
 
-        setTextCustom(new String(chars));
+    public void resetDate() {
+        engine.reset();
+        clearTextCustom();
+    }
 
-        if (dateChanged) {
-            notifyDateChangeListener();
-        }
-        return true;
+    /**
+     * Switches between in-place rendering (default) and replacing the whole text on every change.
+     * In-place rendering rewrites only the changed chars of the current {@link Editable} inside one
+     * batch edit and places the cursor in the same pass
+     */
+    public void setIncrementalRendering(boolean incrementalRendering) {
+        this.incrementalRendering = incrementalRendering;
     }
 
-    public void resetDate() {
-        day = 0;
-        month = 0;
-        year = 0;
-        resetChars();
-        setTextCustom("");
+    public boolean isIncrementalRendering() {
+        return incrementalRendering;
     }
 
     public void setDateSeparator(char separator) {
@@ -119,8 +277,7 @@ public class EditDateView extends AppCompatEditText {
             Log.i(TAG, SEPARATOR_FORMAT_LOG_MESSAGE);
             return;
         }
-        dateSeparator = separator;
-        updateTextInField();
+        applySpec(spec.withSeparator(separator));
     }
 
     public void setDateViewFormat(int format) {
@@ -128,8 +285,14 @@ public class EditDateView extends AppCompatEditText {
             Log.i(TAG, SEPARATOR_FORMAT_LOG_MESSAGE);
             return;
         }
-        dateViewFormat = format;
-        updateTextInField();
+        applySpec(spec.withFormat(format));
+    }
+
+    /**
+     * @return the current format, separator and placeholders, e.g. to pass to {@link #bind}
+     */
+    public DateFormatSpec getDateFormatSpec() {
+        return spec;
     }
 
     public void setPlaceholders(Character dayPlaceholder, Character monthPlaceholder, Character yearPlaceholder) {
@@ -149,7 +312,7 @@ public class EditDateView extends AppCompatEditText {
             Log.i(TAG, MESSAGE_FOR_LOG);
             return;
         }
-        dayPlaceholder = placeholder;
+        spec = spec.withPlaceholders(placeholder, spec.getMonthPlaceholder(), spec.getYearPlaceholder());
         setHintCustom();
     }
 
@@ -158,7 +321,7 @@ public class EditDateView extends AppCompatEditText {
             Log.i(TAG, MESSAGE_FOR_LOG);
             return;
         }
-        monthPlaceholder = placeholder;
+        spec = spec.withPlaceholders(spec.getDayPlaceholder(), placeholder, spec.getYearPlaceholder());
         setHintCustom();
     }
 
@@ -167,7 +330,7 @@ public class EditDateView extends AppCompatEditText {
             Log.i(TAG, MESSAGE_FOR_LOG);
             return;
         }
-        yearPlaceholder = placeholder;
+        spec = spec.withPlaceholders(spec.getDayPlaceholder(), spec.getMonthPlaceholder(), placeholder);
         setHintCustom();
     }
 
@@ -183,139 +346,506 @@ public class EditDateView extends AppCompatEditText {
             Log.i(TAG, "setDateInt: Invalid date (All the parameters must be more than 0");
             return false;
         }
-        if (updateDate(dd, mm, yyyy)) {
-            notifyDateChangeListener();
-            return true;
+        updateDate(dd, mm, yyyy);
+        return dispatchDateChange();
+    }
+
+    /**
+     * Rebinds the view (e.g. a RecyclerView item) in one silent pass. The listeners, bounds and
+     * constraints of the previous binding are removed first and the new date is not reported,
+     * {@code listener} only gets later edits. The text is rendered once
+     *
+     * @param packedYmd date as {@code yyyyMMdd} int, an incomplete date (e.g. {@link PackedDate#NONE}) clears the field
+     * @param spec      configuration to use, null keeps the current one
+     */
+    public void bind(int packedYmd, @Nullable DateFormatSpec spec, @Nullable OnDateChange listener) {
+        bind(packedYmd, spec, PackedDate.NONE, PackedDate.NONE, null, listener);
+    }
+
+    /**
+     * Like {@link #bind(int, DateFormatSpec, OnDateChange)} for an item with its own bounds and
+     * constraints, see {@link #setDateBounds(int, int)} and {@link #setDateConstraints(DateConstraints)}.
+     * The date is clamped to them silently; invalid bounds are ignored
+     */
+    public void bind(int packedYmd, @Nullable DateFormatSpec spec, int minPackedYmd, int maxPackedYmd,
+                     @Nullable DateConstraints constraints, @Nullable OnDateChange listener) {
+        unbind();
+        if (areValidBounds(minPackedYmd, maxPackedYmd)) {
+            engine.setBounds(minPackedYmd, maxPackedYmd);
+        } else {
+            Log.i(TAG, BOUNDS_LOG_MESSAGE);
+        }
+        engine.setConstraints(constraints);
+        if (spec != null && spec != this.spec) {
+            this.spec = spec;
+            engine.configure(spec.getTemplate());
+            setHintCustom();
+        }
+        if (PackedDate.isComplete(packedYmd)) {
+            engine.setDate(PackedDate.getDay(packedYmd), PackedDate.getMonth(packedYmd), PackedDate.getYear(packedYmd));
+            engine.commitChange();
+            setTextCustom(KEEP_SELECTION);
+        } else {
+            engine.reset();
+            clearTextCustom();
+        }
+        if (listener != null) {
+            dateChangeDispatcher.add(listener);
+        }
+    }
+
+    /**
+     * Removes all listeners, bounds and constraints and drops a pending once-per-frame notification
+     * and buffered burst keys without applying them. The date is kept as it is
+     */
+    public void unbind() {
+        dateChangeDispatcher.clear();
+        engine.setBounds(PackedDate.NONE, PackedDate.NONE);
+        engine.setConstraints(null);
+        burstSize = 0;
+        lastBurstKeyTime = NO_KEY_TIME;
+        removeCallbacks(burstFlush);
+        if (isFrameNotificationPending) {
+            isFrameNotificationPending = false;
+            Choreographer.getInstance().removeFrameCallback(frameNotification);
         }
-        return false;
+    }
+
+    /**
+     * Recycle hook (e.g. from {@code onViewRecycled}): unbinds and clears the date without allocating
+     */
+    public void recycle() {
+        unbind();
+        engine.reset();
+        clearTextCustom();
     }
 
     @Nullable
     public String getDateAsString() {
-        if (day == 0 || year == 0 || month == 0) {
-            return null;
-        }
-        return String.format(Locale.US, "%04d-%02d-%02d", year, month, day);
+        return engine.getDateIso();
+    }
+
+    /**
+     * Appends the date as ISO 8601 string ({@code yyyy-MM-dd}) to {@code out} without creating a String
+     *
+     * @return false if the date is not complete and nothing was appended
+     */
+    public boolean getDateAsString(@NonNull StringBuilder out) {
+        return engine.appendDateIso(out);
+    }
+
+    /**
+     * Writes the date as ISO 8601 ({@code yyyy-MM-dd}, 10 chars) into {@code dst} starting at {@code offset}
+     *
+     * @return the number of chars written, 0 if the date is not complete
+     */
+    public int getDateAsChars(@NonNull char[] dst, int offset) {
+        return engine.getDateIso(dst, offset);
     }
 
     public int getDay() {
-        return day;
+        return engine.getDay();
     }
 
     public int getMonth() {
-        return month;
+        return engine.getMonth();
     }
 
     public int getYear() {
-        return year;
+        return engine.getYear();
+    }
+
+    /**
+     * @return the date packed as {@code yyyyMMdd} int (see {@link PackedDate}), fields not entered yet are 0
+     */
+    public int getPackedYmd() {
+        return engine.getPackedDate();
+    }
+
+    /**
+     * Sets the date from a {@code yyyyMMdd} int (see {@link PackedDate})
+     *
+     * @return true if the date changed
+     */
+    public boolean setPackedYmd(int packedYmd) {
+        return setDateInt(PackedDate.getDay(packedYmd), PackedDate.getMonth(packedYmd), PackedDate.getYear(packedYmd));
+    }
+
+    /**
+     * @return days since 1970-01-01 or {@link PackedDate#NO_EPOCH_DAY} if the date is not complete
+     */
+    public long getEpochDay() {
+        return PackedDate.toEpochDay(engine.getPackedDate());
+    }
+
+    /**
+     * Sets the date from days since 1970-01-01
+     *
+     * @return true if the date changed
+     */
+    public boolean setEpochDay(long epochDay) {
+        return setPackedYmd(PackedDate.fromEpochDay(epochDay));
+    }
+
+    /**
+     * Compares the date with a {@code yyyyMMdd} int (see {@link PackedDate})
+     *
+     * @return negative, zero or positive as the date is before, equal to or after {@code packedYmd}
+     */
+    public int compareDate(int packedYmd) {
+        return PackedDate.compare(engine.getPackedDate(), packedYmd);
+    }
+
+    public boolean isBefore(int packedYmd) {
+        return PackedDate.isBefore(engine.getPackedDate(), packedYmd);
+    }
+
+    public boolean isAfter(int packedYmd) {
+        return PackedDate.isAfter(engine.getPackedDate(), packedYmd);
+    }
+
+    /**
+     * Restricts the date to a range, e.g. booking dates from today to one year ahead. The bounds are
+     * applied while typing, on every completed segment and in {@link #setDateInt(int, int, int)};
+     * the current date is clamped right away
+     *
+     * @param minPackedYmd first allowed date as {@code yyyyMMdd} int or {@link PackedDate#NONE}
+     * @param maxPackedYmd last allowed date as {@code yyyyMMdd} int or {@link PackedDate#NONE}
+     */
+    public boolean setDateBounds(int minPackedYmd, int maxPackedYmd) {
+        if (!areValidBounds(minPackedYmd, maxPackedYmd)) {
+            Log.i(TAG, BOUNDS_LOG_MESSAGE);
+            return false;
+        }
+        engine.setBounds(minPackedYmd, maxPackedYmd);
+        if (engine.hasDate()) {
+            setTextCustom(KEEP_SELECTION);
+        }
+        dispatchDateChange();
+        return true;
+    }
+
+    /**
+     * Like {@link #setDateBounds(int, int)} with days since 1970-01-01,
+     * {@link PackedDate#NO_EPOCH_DAY} for an open bound
+     */
+    public boolean setDateBoundsEpochDay(long minEpochDay, long maxEpochDay) {
+        return setDateBounds(PackedDate.fromEpochDay(minEpochDay), PackedDate.fromEpochDay(maxEpochDay));
+    }
+
+    private static boolean areValidBounds(int minPackedYmd, int maxPackedYmd) {
+        return (minPackedYmd == PackedDate.NONE || PackedDate.isValid(minPackedYmd))
+                && (maxPackedYmd == PackedDate.NONE || PackedDate.isValid(maxPackedYmd))
+                && (minPackedYmd == PackedDate.NONE || maxPackedYmd == PackedDate.NONE || minPackedYmd <= maxPackedYmd);
+    }
+
+    public void clearDateBounds() {
+        engine.setBounds(PackedDate.NONE, PackedDate.NONE);
+    }
+
+    public int getMinDate() {
+        return engine.getMinDate();
+    }
+
+    public int getMaxDate() {
+        return engine.getMaxDate();
+    }
+
+    /**
+     * Restricts the date to allowed days, e.g. business days without holidays. A complete date on a
+     * disallowed day moves to the next allowed one, or the previous one if the max date is in the
+     * way; the current date is moved right away. The constraints can be shared between views.
+     *
+     * @param constraints {@code null} for none
+     */
+    public void setDateConstraints(@Nullable DateConstraints constraints) {
+        engine.setConstraints(constraints);
+        if (engine.hasDate()) {
+            setTextCustom(KEEP_SELECTION);
+        }
+        dispatchDateChange();
+    }
+
+    @Nullable
+    public DateConstraints getDateConstraints() {
+        return engine.getConstraints();
+    }
+
+    /**
+     * @return false if the date is complete and not allowed by the constraints, e.g. because they
+     * changed after the date was entered
+     */
+    public boolean isDateAllowed() {
+        DateConstraints constraints = engine.getConstraints();
+        return constraints == null || constraints.isAllowed(engine.getPackedDate());
+    }
+
+    private boolean applyDateString(CharSequence date) {
+        int result = engine.setDateString(date);
+        if (result == DateMaskEngine.DATE_INVALID) {
+            return false;
+        }
+        setTextCustom(KEEP_SELECTION);
+        dispatchDateChange();
+        return true;
     }
 
-    private void updateTextInField() {
+    private void applySpec(DateFormatSpec spec) {
+        this.spec = spec;
+        boolean hasDate = engine.configure(spec.getTemplate());
         setHintCustom();
-        resetChars();
-        if (day != 0 || month != 0 || year != 0) {
-            makeYearChars();
-            makeMonth();
-            makeDayChars();
-            setTextCustom(new String(chars));
+        if (hasDate) {
+            setTextCustom(KEEP_SELECTION);
+        }
+    }
+
+    /**
+     * Ends a logical edit: the listener gets the final date once, and only if it changed.
+     *
+     * @return true if the date changed
+     */
+    private boolean dispatchDateChange() {
+        if (!engine.commitChange()) {
+            return false;
+        }
+        if (notifyOncePerFrame) {
+            if (!isFrameNotificationPending) {
+                isFrameNotificationPending = true;
+                Choreographer.getInstance().postFrameCallback(frameNotification);
+            }
+        } else {
+            notifyDateChangeListener();
         }
+        return true;
     }
 
     private void notifyDateChangeListener() {
-        if (onDateChangeListener != null) {
-            onDateChangeListener.onChange(day, month, year);
+        Trace.beginSection(TRACE_DISPATCH);
+        try {
+            dateChangeDispatcher.dispatch(engine.getDay(), engine.getMonth(), engine.getYear());
+            count(InputMetrics.NOTIFICATIONS);
+        } finally {
+            Trace.endSection();
         }
     }
 
-    private void init() {
+    private void init(@Nullable AttributeSet attrs, int defStyleAttr) {
+        spec = readAttributes(getContext(), attrs, defStyleAttr);
+        engine.configure(spec.getTemplate());
         setHintCustom();
-        resetChars();
         setEDFilters();
         setListeners();
     }
 
-    private void setHintCustom() {
-        String hint = "";
-        switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD:
-                hint = "" + yearPlaceholder + yearPlaceholder + yearPlaceholder + yearPlaceholder + dateSeparator + monthPlaceholder + monthPlaceholder + dateSeparator + dayPlaceholder + dayPlaceholder;
-                break;
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY:
-                hint = "" + monthPlaceholder + monthPlaceholder + dateSeparator + dayPlaceholder + dayPlaceholder + dateSeparator + yearPlaceholder + yearPlaceholder + yearPlaceholder + yearPlaceholder;
-                break;
-            case DefaultSettings.DATE_VIEW_FORMAT_DMY:
-                hint = "" + dayPlaceholder + dayPlaceholder + dateSeparator + monthPlaceholder + monthPlaceholder + dateSeparator + yearPlaceholder + yearPlaceholder + yearPlaceholder + yearPlaceholder;
-                break;
+    /**
+     * Applies the XML attributes to the default spec in one pass, so the hint and the buffer are
+     * built only once. Also used by {@link DateMaskView}
+     */
+    static DateFormatSpec readAttributes(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        if (attrs == null) {
+            return DefaultSettings.getDefaultSpec();
+        }
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.EditDateView, defStyleAttr, 0);
+        try {
+            DateFormatSpec defaultSpec = DefaultSettings.getDefaultSpec(
+                    a.getBoolean(R.styleable.EditDateView_useLocaleDefaults, DefaultSettings.isUseLocaleDefaults()));
+            int format = a.getInt(R.styleable.EditDateView_dateViewFormat, defaultSpec.getFormat());
+            char separator = switch (a.getInt(R.styleable.EditDateView_dateSeparator, -1)) {
+                case 0 -> DefaultSettings.DATE_SEPARATOR_DOT;
+                case 1 -> DefaultSettings.DATE_SEPARATOR_SLASH;
+                case 2 -> DefaultSettings.DATE_SEPARATOR_DASH;
+                default -> defaultSpec.getSeparator();
+            };
+            char day = readPlaceholder(a, R.styleable.EditDateView_dayPlaceholder, defaultSpec.getDayPlaceholder());
+            char month = readPlaceholder(a, R.styleable.EditDateView_monthPlaceholder, defaultSpec.getMonthPlaceholder());
+            char year = readPlaceholder(a, R.styleable.EditDateView_yearPlaceholder, defaultSpec.getYearPlaceholder());
+            return DateFormatSpec.of(format, separator, day, month, year);
+        } finally {
+            a.recycle();
         }
-        setHint(hint);
     }
 
-    private void resetChars() {
-        int[] separatorPosition = new int[2];
-        separatorPosition[0] = POSITION2;
-        separatorPosition[1] = POSITION5;
-        if (dateViewFormat == DefaultSettings.DATE_VIEW_FORMAT_YMD) {
-            separatorPosition[0] = POSITION4;
-            separatorPosition[1] = POSITION7;
+    private static char readPlaceholder(TypedArray a, int index, char defaultPlaceholder) {
+        String value = a.getString(index);
+        if (value == null) {
+            return defaultPlaceholder;
         }
-        for (int i = 0; i < 10; i++) {
-            chars[i] = (i == separatorPosition[0] || i == separatorPosition[1]) ? dateSeparator : CHAR_PLACEHOLDER;
+        if (value.length() != 1 || !DefaultSettings.validatePlaceholderChar(value.charAt(0))) {
+            Log.i(TAG, MESSAGE_FOR_LOG);
+            return defaultPlaceholder;
         }
+        return value.charAt(0);
     }
 
-    private void setTextCustom(CharSequence text) {
-        isUpdatingText = true;
-        super.setText(text, BufferType.NORMAL);
-        isUpdatingText = false;
+    @Override
+    public int getAutofillType() {
+        return AUTOFILL_TYPE_DATE;
     }
 
-    private boolean isValidDateFormat(String date) {
-        if (date == null) {
-            return false;
+    /**
+     * @return the date as local midnight in epoch millis, like {@code DatePicker} reports it, null while incomplete
+     */
+    @Nullable
+    @Override
+    public AutofillValue getAutofillValue() {
+        if (!engine.isComplete()) {
+            return null;
         }
-        return date.matches("\\d{4}-\\d{2}-\\d{2}"); // ISO 8601
+        long utcMidnight = getEpochDay() * MILLIS_PER_DAY;
+        return AutofillValue.forDate(utcMidnight - TimeZone.getDefault().getOffset(utcMidnight));
     }
 
-    private boolean updateDate(int dayInput, int monthInput, int yearInput) {
-        boolean changed = false;
-        if (year != yearInput) {
-            year = validateYear(yearInput);
-            changed = true;
+    /**
+     * Date values are applied straight to the date (one render, one notification); text values take
+     * the {@link #setText} path
+     */
+    @Override
+    public void autofill(AutofillValue value) {
+        if (value == null || !isEnabled()) {
+            return;
         }
-        if (month != monthInput) {
-            month = validateMonth(monthInput);
-            changed = true;
+        if (!value.isDate()) {
+            super.autofill(value);
+            return;
         }
-        if (day != dayInput) {
-            day = validateDay(dayInput);
-            changed = true;
+        long millis = value.getDateValue();
+        setEpochDay(Math.floorDiv(millis + TimeZone.getDefault().getOffset(millis), MILLIS_PER_DAY));
+    }
+
+    @Override
+    public Parcelable onSaveInstanceState() {
+        return new SavedState(super.onSaveInstanceState(), engine.getPackedDate(), spec.getKey());
+    }
+
+    /**
+     * Restores the date and the configuration from the packed {@link SavedState}. The text saved by
+     * TextView is ignored, so nothing is parsed and no listener is called
+     */
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        isRestoringState = true;
+        try {
+            super.onRestoreInstanceState(savedState.getSuperState());
+        } finally {
+            isRestoringState = false;
+        }
+        try {
+            spec = DateFormatSpec.fromKey(savedState.spec);
+        } catch (IllegalArgumentException e) {
+            Log.i(TAG, "onRestoreInstanceState: " + e.getMessage());
+        }
+        engine.configure(spec.getTemplate());
+        setHintCustom();
+        engine.restore(savedState.date);
+        if (engine.hasDate()) {
+            setTextCustom(KEEP_SELECTION);
+        } else {
+            clearTextCustom();
         }
-        updateChars();
-        setTextCustom(new String(chars));
-        return changed;
     }
 
-    private void updateChars() {
-        resetChars();
-        System.arraycopy(formatDate(), 0, chars, 0, 10);
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        DefaultSettings.onConfigurationChanged();
     }
 
-    private char[] formatDate() {
-        String format;
-        return switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD -> {
-                format = "%04d" + dateSeparator + "%02d" + dateSeparator + "%02d";
-                yield String.format(Locale.US, format, year, month, day).toCharArray();
-            }
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY -> {
-                format = "%02d" + dateSeparator + "%02d" + dateSeparator + "%04d";
-                yield String.format(Locale.US, format, month, day, year).toCharArray();
-            }
-            default -> {
-                format = "%02d" + dateSeparator + "%02d" + dateSeparator + "%04d";
-                yield String.format(Locale.US, format, day, month, year).toCharArray();
+    @Override
+    protected void onDetachedFromWindow() {
+        flushBurst();
+        if (isFrameNotificationPending) {
+            Choreographer.getInstance().removeFrameCallback(frameNotification);
+            frameNotification.doFrame(0);
+        }
+        super.onDetachedFromWindow();
+    }
+
+    private void setHintCustom() {
+        count(InputMetrics.HINT_UPDATES);
+        setHint(spec.getHint());
+    }
+
+    private void setTextCustom(int selection) {
+        replaceText(maskLength(), selection);
+    }
+
+    private void clearTextCustom() {
+        replaceText(0, KEEP_SELECTION);
+    }
+
+    private int maskLength() {
+        return engine.getTemplate().getLength();
+    }
+
+    /**
+     * Shows the first {@code length} chars of the engine buffer. Only the range that differs from the
+     * current text is replaced: while both hold a full mask this is searched only inside the chars the
+     * engine marked dirty. When {@code selection} is not {@link #KEEP_SELECTION} the cursor is moved
+     * in the same batch edit.
+     */
+    private void replaceText(int length, int selection) {
+        Trace.beginSection(TRACE_RENDER);
+        count(InputMetrics.RENDERS);
+        try {
+            replaceTextTraced(length, selection);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void replaceTextTraced(int length, int selection) {
+        Editable editable = getText();
+        isUpdatingText = true;
+        if (!incrementalRendering || isFilteringRange || editable == null) {
+            count(InputMetrics.FULL_REWRITES);
+            super.setText(length == 0 ? "" : new String(engine.getChars(), 0, length), BufferType.NORMAL);
+            if (selection != KEEP_SELECTION) {
+                setSelection(selection);
             }
-        };
+            engine.clearDirty();
+            isUpdatingText = false;
+            return;
+        }
+        char[] chars = engine.getChars();
+        int oldLength = editable.length();
+        int start = 0;
+        int oldEnd = oldLength;
+        int newEnd = length;
+        if (oldLength == maskLength() && length == maskLength()) {
+            // the text shows the buffer as of the last clearDirty(), only the dirty chars can differ
+            start = engine.getDirtyStart();
+            oldEnd = Math.max(engine.getDirtyEnd(), start);
+            newEnd = oldEnd;
+        }
+        int common = Math.min(oldEnd, newEnd);
+        while (start < common && editable.charAt(start) == chars[start]) {
+            start++;
+        }
+        while (oldEnd > start && newEnd > start && editable.charAt(oldEnd - 1) == chars[newEnd - 1]) {
+            oldEnd--;
+            newEnd--;
+        }
+        beginBatchEdit();
+        if (start < oldEnd || start < newEnd) {
+            editable.replace(start, oldEnd, charsSequence, start, newEnd);
+        }
+        if (selection != KEEP_SELECTION) {
+            Selection.setSelection(editable, Math.min(selection, editable.length()));
+        }
+        endBatchEdit();
+        engine.clearDirty();
+        isUpdatingText = false;
+    }
+
+    private boolean updateDate(int dayInput, int monthInput, int yearInput) {
+        boolean changed = engine.setDate(dayInput, monthInput, yearInput);
+        setTextCustom(KEEP_SELECTION);
+        return changed;
     }
 
     private void setEDFilters() {
@@ -337,12 +867,23 @@ public class EditDateView extends AppCompatEditText {
                 if (isUpdatingText) {
                     return;
                 }
-                handleDeletion(start, before);
+                // the text must not be changed from this callback, see afterTextChanged
+                pendingDeletionStart = start;
+                pendingDeletionCount = before;
             }
 
             @Override
             public void afterTextChanged(Editable s) {
-                // This Methode is useless in the context
+                if (isUpdatingText) {
+                    return;
+                }
+                if (isPasting) {
+                    // the pasted date is in the text only now
+                    isPasting = false;
+                    dispatchDateChange();
+                    return;
+                }
+                handleDeletion(pendingDeletionStart, pendingDeletionCount);
             }
         });
 
@@ -350,6 +891,7 @@ public class EditDateView extends AppCompatEditText {
             @Override
             public void onFocusChange(View v, boolean hasFocus) {
                 if (!hasFocus) {
+                    flushBurst();
                     charsCheck();
                 }
             }
@@ -357,258 +899,278 @@ public class EditDateView extends AppCompatEditText {
     }
 
     private void charsCheck() {
-
-        if (checkAllYearCharsIsEmpty(getYearPosition()) || checkDayOrMonthCharsIsEmpty(getDayPosition()) || checkDayOrMonthCharsIsEmpty(getMonthPosition())) {
-            resetDate();
-        } else {
-            boolean isNotChanged = true;
-            if (day == 0) {
-                isNotChanged = false;
-                makeDay();
-            }
-            if (month == 0) {
-                isNotChanged = false;
-                makeMonth();
-            }
-            if (year == 0) {
-                isNotChanged = false;
-                makeYear();
-            }
-            if (isNotChanged) {
-                makeDayChars();
-                makeMonthChars();
-                makeYearChars();
+        Trace.beginSection(TRACE_CHARS_CHECK);
+        try {
+            if (engine.complete()) {
+                setTextCustom(KEEP_SELECTION);
+                dispatchDateChange();
+            } else {
+                clearTextCustom();
             }
-            setTextCustom(new String(chars));
+        } finally {
+            Trace.endSection();
         }
     }
 
-    private boolean checkDayOrMonthCharsIsEmpty(int position) {
-        return chars[position] == CHAR_PLACEHOLDER && chars[position + 1] == CHAR_PLACEHOLDER;
-    }
-
-    private boolean checkAllYearCharsIsEmpty(int position) {
-        int count = 0;
-        for (int i = position; i < position + 4; i++) {
-            if (chars[i] == CHAR_PLACEHOLDER) {
-                count++;
-            }
+    private void handleDeletion(int position, int before) {
+        if (before < 1) {
+            return;
         }
-        if (count > 3) {
-            return true;
+        Trace.beginSection(TRACE_DELETION);
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        try {
+            if (!engine.delete(position, before)) {
+                clearTextCustom();
+                return;
+            }
+            setTextCustom(position);
+        } finally {
+            recordKeystroke(startNanos);
+            Trace.endSection();
         }
-        return false;
     }
 
-    private boolean checkCharsIsVoid() {
-        int count = 0;
-        for (int i = 0; i < 10; i++) {
-            if (chars[i] == CHAR_PLACEHOLDER) {
-                count++;
-            }
-        }
-        if (count > 7) {   //count>=8 (all chars are void)
-            resetDate();
-            return true;
+    private void count(int counter) {
+        InputMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.increment(counter);
         }
-        return false;
     }
 
-    private void handleDeletion(int position, int before) {
-        if (isPasting) {
-            isPasting = false;
-            return;
-        }
-        if (before < 1) {
-            return;
+    private void recordKeystroke(long startNanos) {
+        InputMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.increment(InputMetrics.KEYSTROKES);
+            metrics.recordLatency(System.nanoTime() - startNanos);
         }
-        if (before > 10) {
-            before = 10;
+    }
+
+    /**
+     * IME fast path: commits and deletions go straight into the engine, any number of chars in one
+     * pass, and the text is rendered once per batch edit instead of once per char. Composing text
+     * and key events take the regular path through {@link InputFilterMain}
+     */
+    private class DateInputConnection extends InputConnectionWrapper {
+
+        private int batchDepth;
+        private boolean isRenderPending;
+        private int pendingCaret;
+        // range of the text entered by setComposingText, replaced by the next composing or commit
+        private int composingStart = NO_COMPOSING;
+        private int composingEnd;
+
+        DateInputConnection(InputConnection target) {
+            super(target, true);
         }
-        int sep1 = 2;
-        int sep2 = 5;
-        if (dateViewFormat == DefaultSettings.DATE_VIEW_FORMAT_YMD) {
-            sep1 = 4;
-            sep2 = 7;
+
+        @Override
+        public boolean beginBatchEdit() {
+            batchDepth++;
+            return super.beginBatchEdit();
         }
 
-        for (int i = position; i < before + position; i++) {
-            if (i == sep1 || i == sep2) {
-                continue;
+        @Override
+        public boolean endBatchEdit() {
+            if (batchDepth > 0 && --batchDepth == 0 && isRenderPending) {
+                isRenderPending = false;
+                renderCommit(pendingCaret);
             }
-            chars[i] = CHAR_PLACEHOLDER;
-        }
-        if (checkCharsIsVoid()) {
-            return;
+            return super.endBatchEdit();
         }
-        setTextCustom(new String(chars));
-        setSelection(position);
-    }
 
-    private int makeDigits(int startChar, int count) {
-        if (startChar + count > 10) {
-            return 0;
-        }
-        int summ = 0;
-        int multiplier = 1;
-        for (int i = count + startChar - 1; i >= startChar; i--) {
-            if (chars[i] != CHAR_PLACEHOLDER && Character.isDigit(chars[i])) {
-                summ = summ + (chars[i] - 48) * multiplier;
+        @Override
+        public boolean commitText(CharSequence text, int newCursorPosition) {
+            if (text == null || (text.length() == 0 && composingStart == NO_COMPOSING) || !isMasked()) {
+                return super.commitText(text, newCursorPosition);
+            }
+            Trace.beginSection(TRACE_COMMIT);
+            long startNanos = metrics != null ? System.nanoTime() : 0;
+            try {
+                scheduleRender(replaceComposing(text));
+                composingStart = NO_COMPOSING;
+            } finally {
+                recordKeystroke(startNanos);
+                Trace.endSection();
             }
-            multiplier = multiplier * 10;
+            return true;
         }
-        return summ;
-    }
-
-    private void makeDay() {
-        int startPosition = switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD -> 8;
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY -> 3;
-            default -> 0;
-        };
-        int dayInput = makeDigits(startPosition, 2);
-        day = validateDay(dayInput);
-        makeDayChars();
-        notifyDateChangeListener();
-    }
 
-    private void makeMonth() {
-        int startPosition = switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY -> 0;
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD -> 5;
-            default -> 3;
-        };
-        int monthInput = makeDigits(startPosition, 2);
-        month = validateMonth(monthInput);
-        if (day > 0) {
-            day = validateDay(day);
-            makeDayChars();
+        /**
+         * Composed text goes to the engine like a commit, the field never shows a composing region
+         */
+        @Override
+        public boolean setComposingText(CharSequence text, int newCursorPosition) {
+            if (text == null || !isMasked()) {
+                return super.setComposingText(text, newCursorPosition);
+            }
+            Trace.beginSection(TRACE_COMMIT);
+            long startNanos = metrics != null ? System.nanoTime() : 0;
+            try {
+                int caret = replaceComposing(text);
+                composingEnd = caret;
+                if (caret == CARET_CLEARED) {
+                    composingStart = NO_COMPOSING;
+                }
+                scheduleRender(caret);
+            } finally {
+                recordKeystroke(startNanos);
+                Trace.endSection();
+            }
+            return true;
         }
-        makeMonthChars();
-        notifyDateChangeListener();
-    }
 
-    private void makeYear() {
-        int startPosition = switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD -> 0;
-            default -> 6;
-        };
+        @Override
+        public boolean finishComposingText() {
+            composingStart = NO_COMPOSING;
+            return super.finishComposingText();
+        }
 
-        int yearInput = makeDigits(startPosition, 4);
-        year = validateYear(yearInput);
-        if (day > 0) {
-            day = validateDay(day);
-            makeDayChars();
+        @Override
+        public boolean deleteSurroundingText(int beforeLength, int afterLength) {
+            if (!isRenderPending && (getText() == null || getText().length() != maskLength())) {
+                return super.deleteSurroundingText(beforeLength, afterLength);
+            }
+            Trace.beginSection(TRACE_DELETE_SURROUNDING);
+            long startNanos = metrics != null ? System.nanoTime() : 0;
+            try {
+                int start = selectionStart();
+                int end = selectionEnd();
+                boolean hasDigits = true;
+                int after = Math.min(Math.max(afterLength, 0), maskLength() - end);
+                if (after > 0) {
+                    hasDigits = engine.delete(end, after);
+                }
+                int from = Math.max(start - Math.max(beforeLength, 0), 0);
+                if (hasDigits && from < start) {
+                    hasDigits = engine.delete(from, start - from);
+                }
+                scheduleRender(hasDigits ? from : CARET_CLEARED);
+            } finally {
+                recordKeystroke(startNanos);
+                Trace.endSection();
+            }
+            return true;
         }
-        makeYearChars();
-        notifyDateChangeListener();
-    }
 
-    private int getDayPosition() {
-        switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD:
-                return 8;
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY:
-                return 3;
-            default:
-                return 0;
+        private boolean isMasked() {
+            int length = getText() == null ? 0 : getText().length();
+            return isRenderPending || composingStart != NO_COMPOSING || length == 0 || length == maskLength();
+        }
+
+        /**
+         * Applies {@code text} in place of the composed text, or of a composing region set by the
+         * IME, or of the selection, and keeps the start of the replaced range in {@link #composingStart}
+         */
+        private int replaceComposing(CharSequence text) {
+            int start;
+            int end;
+            Editable editable = getText();
+            int spanStart = editable == null ? -1 : BaseInputConnection.getComposingSpanStart(editable);
+            if (composingStart != NO_COMPOSING) {
+                start = composingStart;
+                end = composingEnd;
+            } else if (spanStart != -1) {
+                int spanEnd = BaseInputConnection.getComposingSpanEnd(editable);
+                start = Math.min(spanStart, spanEnd);
+                end = Math.max(spanStart, spanEnd);
+                BaseInputConnection.removeComposingSpans(editable);
+            } else {
+                start = selectionStart();
+                end = selectionEnd();
+            }
+            composingStart = start;
+            return applyCommit(text, start, end);
         }
-    }
 
-    private int getMonthPosition() {
-        switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD:
-                return 5;
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY:
-                return 0;
-            default:
-                return 3;
+        /**
+         * While a render is pending the selection of the text is stale, the caret is the pending one
+         */
+        private int selectionStart() {
+            if (isRenderPending) {
+                return pendingCaret == CARET_CLEARED ? 0 : pendingCaret;
+            }
+            return Math.max(Math.min(getSelectionStart(), getSelectionEnd()), 0);
         }
-    }
 
-    private int getYearPosition() {
-        if (dateViewFormat == DefaultSettings.DATE_VIEW_FORMAT_YMD) {
-            return 0;
+        private int selectionEnd() {
+            return isRenderPending ? selectionStart() : Math.max(getSelectionStart(), getSelectionEnd());
         }
-        return 6;
-    }
 
-    private int validateMonth(int month) {
-        return Math.max(1, Math.min(month, 12));
+        private void scheduleRender(int caret) {
+            if (batchDepth > 0) {
+                isRenderPending = true;
+                pendingCaret = caret;
+            } else {
+                renderCommit(caret);
+            }
+        }
     }
 
-    private int validateYear(int year) {
-        return Math.max(1, Math.min(year, 2100));
+    /**
+     * Replaces {@code [start, end)} with {@code text} in the engine. A complete date is taken as a
+     * paste, otherwise digits and separators are applied one by one and other chars are dropped
+     *
+     * @return the new caret, {@link #CARET_CLEARED} if removing the selection reset the date and
+     * nothing was entered
+     */
+    private int applyCommit(CharSequence text, int start, int end) {
+        boolean cleared = end > start && !engine.delete(start, end - start);
+        int caret = start;
+        if (text.length() > 1 && engine.paste(text) != DateMaskEngine.DATE_INVALID) {
+            count(InputMetrics.PASTES);
+            return maskLength();
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (DefaultSettings.validateSeparator(c)) {
+                caret = engine.inputSeparator(caret);
+                cleared = false;
+            } else if (Character.isDigit(c)) {
+                caret = engine.inputDigit(caret, c);
+                cleared = false;
+            } else {
+                count(InputMetrics.REJECTED_INPUTS);
+            }
+        }
+        return cleared ? CARET_CLEARED : caret;
     }
 
-    private int validateDay(int day) {
-        if (day < 1) return 1;
-        int maxDays = switch (month) {
-            case 4, 6, 9, 11 -> 30;
-            case 2 -> isLeapYear(year) ? 29 : 28;
-            default -> 31;
-        };
-        return Math.min(day, maxDays);
-    }
-
-    private void makeMonthChars() {
-        int a0 = month / 10;
-        int a1 = month % 10;
-        switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY:
-                chars[0] = (char) (a0 + 48);
-                chars[1] = (char) ('0' + a1);
-                break;
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD:
-                chars[5] = (char) (a0 + 48);
-                chars[6] = (char) ('0' + a1);
-                break;
-            default:
-                chars[3] = (char) (a0 + 48);
-                chars[4] = (char) ('0' + a1);
-                break;
-        }
-    }
-
-    private void makeDayChars() {
-        int a0 = day / 10;
-        int a1 = day % 10;
-        switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD:
-                chars[8] = (char) (a0 + 48);
-                chars[9] = (char) ('0' + a1);
-                break;
-            case DefaultSettings.DATE_VIEW_FORMAT_MDY:
-                chars[3] = (char) (a0 + 48);
-                chars[4] = (char) ('0' + a1);
-                break;
-            default:
-                chars[0] = (char) (a0 + 48);
-                chars[1] = (char) ('0' + a1);
-                break;
-        }
-    }
-
-    private void makeYearChars() {
-        int[] a = new int[4];
-        a[0] = year / 1000;
-        int rest = year % 1000;
-        a[1] = rest / 100;
-        rest = rest % 100;
-        a[2] = rest / 10;
-        a[3] = rest % 10;
-        int startPosition = switch (dateViewFormat) {
-            case DefaultSettings.DATE_VIEW_FORMAT_YMD -> 0;
-            default -> 6;
-        };
-
-        for (int i = startPosition; i < 4 + startPosition; i++) {
-            chars[i] = (char) (a[i - startPosition] + 48);
+    /**
+     * Applies the buffered burst keys in one pass
+     */
+    private void flushBurst() {
+        if (burstSize == 0) {
+            return;
+        }
+        removeCallbacks(burstFlush);
+        Trace.beginSection(TRACE_BURST);
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        try {
+            for (int i = 0; i < burstSize; i++) {
+                burstChars[i] = burstRing[(burstHead + i) % BURST_CAPACITY];
+            }
+            burstSequence.clear();
+            burstSequence.limit(burstSize);
+            burstHead = (burstHead + burstSize) % BURST_CAPACITY;
+            burstSize = 0;
+            int start = Math.max(Math.min(getSelectionStart(), getSelectionEnd()), 0);
+            renderCommit(applyCommit(burstSequence, start, Math.max(getSelectionStart(), getSelectionEnd())));
+        } finally {
+            recordKeystroke(startNanos);
+            Trace.endSection();
         }
     }
 
-    private boolean isLeapYear(int year) {
-        return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+    /**
+     * Renders once after {@link #applyCommit(CharSequence, int, int)} and reports the date
+     */
+    private void renderCommit(int caret) {
+        if (caret == CARET_CLEARED) {
+            clearTextCustom();
+        } else {
+            setTextCustom(caret);
+        }
+        dispatchDateChange();
     }
 
     private class InputFilterMain implements InputFilter {
@@ -616,176 +1178,136 @@ public class EditDateView extends AppCompatEditText {
         @Override
         public CharSequence filter(CharSequence source, int start, int end, Spanned dest, int dstart, int dend) {
             if (isUpdatingText) return null;
-            if (start != 0) return "";
+            Trace.beginSection(TRACE_FILTER);
+            try {
+                return filterTraced(source, start, dstart, dend);
+            } finally {
+                Trace.endSection();
+            }
+        }
+
+        private CharSequence filterTraced(CharSequence source, int start, int dstart, int dend) {
+            if (start != 0) {
+                count(InputMetrics.REJECTED_INPUTS);
+                return "";
+            }
             if (source.length() == 0) return null;
             if (source.length() == 1) {
-                if (source.charAt(0) == DefaultSettings.DATE_SEPARATOR_DOT || source.charAt(0) == DefaultSettings.DATE_SEPARATOR_DASH || source.charAt(0) == DefaultSettings.DATE_SEPARATOR_SLASH) {
+                char c = source.charAt(0);
+                long startNanos = metrics != null ? System.nanoTime() : 0;
+                // a replaced selection is removed from dest after this filter returns,
+                // so the text can only be edited in place for a plain insertion
+                isFilteringRange = dstart != dend;
+                if (DefaultSettings.validateSeparator(c)) {
                     handleSeparatorsInput(dstart);
+                } else if (Character.isDigit(c)) {
+                    handleAddition(dstart, c);
+                } else {
+                    count(InputMetrics.REJECTED_INPUTS);
+                    isFilteringRange = false;
+                    return "";
                 }
-                if (Character.isDigit(source.charAt(0))) {
-                    handleAddition(dstart, source);
-                }
-            } else if (source.length() == 10) {
-                if (handlePasteDate(source)) {
-                    isPasting = true;
-                    return new String(chars);
-                }
+                isFilteringRange = false;
+                recordKeystroke(startNanos);
+            } else {
+                return handlePasteDate(source);
             }
             return "";
         }
 
-        private boolean handlePasteDate(CharSequence source) {
-            if (source == null) {
-                return false;
+        private CharSequence handlePasteDate(CharSequence source) {
+            Trace.beginSection(TRACE_PASTE);
+            try {
+                if (engine.paste(source) == DateMaskEngine.DATE_INVALID) {
+                    count(InputMetrics.REJECTED_INPUTS);
+                    return "";
+                }
+                count(InputMetrics.PASTES);
+                // the returned buffer replaces the text as a whole
+                engine.clearDirty();
+                // reported from afterTextChanged
+                isPasting = true;
+                return charsSequence;
+            } finally {
+                Trace.endSection();
             }
-            String input = source.toString();
-            String separators = "" + DefaultSettings.DATE_SEPARATOR_DOT + DefaultSettings.DATE_SEPARATOR_SLASH + DefaultSettings.DATE_SEPARATOR_DASH;
-            String regex = "\\d{2}[" + separators + "]\\d{2}[" + separators + "]\\d{4}";
-            int sep1Pos = POSITION2;
-            int sep2Pos = POSITION5;
+        }
 
-            if (dateViewFormat == DefaultSettings.DATE_VIEW_FORMAT_YMD) {
-                regex = "\\d{4}[" + separators + "]\\d{2}[" + separators + "]\\d{2}";
-                sep1Pos = POSITION4;
-                sep2Pos = POSITION7;
+        private void handleSeparatorsInput(int position) {
+            Trace.beginSection(TRACE_SEPARATOR);
+            try {
+                setTextCustom(engine.inputSeparator(position));
+                dispatchDateChange();
+            } finally {
+                Trace.endSection();
             }
+        }
 
-            if (!input.matches(regex)) {
-                return false;
-            }
-            for (int i = 0; i < 10; i++) {
-                if (i == sep1Pos || i == sep2Pos) {
-                    continue;
-                }
-                chars[i] = input.charAt(i);
+        private void handleAddition(int position, char ch) {
+            Trace.beginSection(TRACE_ADDITION);
+            try {
+                setTextCustom(engine.inputDigit(position, ch));
+                dispatchDateChange();
+            } finally {
+                Trace.endSection();
             }
-//            makeDay();
-//            makeMonth();
-//            makeYear();
-            return true;
         }
+    }
 
-        private void handleSeparatorsInput(int position) {
-            int newPos = 3;
-            switch (dateViewFormat) {
-                case DefaultSettings.DATE_VIEW_FORMAT_YMD:
-                    newPos = 5;
-                    if (position <= 4) {
-                        makeYear();
-                    } else if (position <= 7) {
-                        makeMonth();
-                        newPos = 8;
-                    } else {
-                        makeDay();
-                        newPos = 10;
-                    }
-                    break;
-                case DefaultSettings.DATE_VIEW_FORMAT_MDY:
-                    if (position <= 2) {
-                        makeMonth();
-                    } else if (position <= 5) {
-                        makeDay();
-                        newPos = 6;
-                    } else {
-                        makeYear();
-                        newPos = 10;
-                    }
-                    break;
-                default:
-                    if (position <= 2) {
-                        makeDay();
-                    } else if (position <= 5) {
-                        makeMonth();
-                        newPos = 6;
-                    } else {
-                        makeYear();
-                        newPos = 10;
-                    }
-                    break;
-            }
-            setTextCustom(new String(chars));
-            setSelection(newPos);
-        }
-
-        private void handleAddition(int position, CharSequence ch) {
-            position = switch (dateViewFormat) {
-                case DefaultSettings.DATE_VIEW_FORMAT_YMD -> additionYMD(position, ch);
-                case DefaultSettings.DATE_VIEW_FORMAT_MDY -> additionMDY(position, ch);
-                default -> additionDMY(position, ch);
-            };
+    /**
+     * View state: the date as packed {@code yyyyMMdd} int and the {@link DateFormatSpec#getKey() spec key}
+     */
+    static class SavedState extends BaseSavedState {
+
+        private final int date;
+        private final long spec;
 
-            String str = new String(chars);
-            setTextCustom(str);
-            setSelection(position);
+        SavedState(Parcelable superState, int date, long spec) {
+            super(superState);
+            this.date = date;
+            this.spec = spec;
         }
 
-        private int additionYMD(int position, CharSequence ch) {
-            if (position != 4 && position != 7 && position < 10) {
-                chars[position] = ch.charAt(0);
-                position++;
-            }
-            if (position == 4) {
-                makeYear();
-                position++;
-            }
-            if (position == 7) {
-                makeMonth();
-                position++;
-            }
-            if (position >= 10) {
-                makeDay();
-            }
-            return position;
+        private SavedState(Parcel in, ClassLoader loader) {
+            super(in, loader);
+            date = in.readInt();
+            spec = in.readLong();
         }
 
-        private int additionMDY(int position, CharSequence ch) {
-            if (position != 2 && position != 5 && position < 10) {
-                chars[position] = ch.charAt(0);
-                position++;
-            }
-            if (position == 2) {
-                makeMonth();
-                position++;
-            }
-            if (position == 5) {
-                makeDay();
-                position++;
-            }
-            if (position >= 10) {
-                makeYear();
-            }
-            return position;
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(date);
+            out.writeLong(spec);
         }
 
-        private int additionDMY(int position, CharSequence ch) {
-            if (position != 2 && position != 5 && position < 10) {
-                chars[position] = ch.charAt(0);
-                position++;
-            }
-            if (position == 2) {
-                makeDay();
-                position++;
+        public static final Creator<SavedState> CREATOR = new ClassLoaderCreator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in, ClassLoader loader) {
+                return new SavedState(in, loader);
             }
-            if (position == 5) {
-                makeMonth();
-                position++;
+
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in, null);
             }
-            if (position >= 10) {
-                makeYear();
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
             }
-            return position;
-        }
+        };
     }
 
     public static class DefaultSettings {
 
-        public static final int DATE_VIEW_FORMAT_DMY = 0;
-        public static final int DATE_VIEW_FORMAT_YMD = 1;
-        public static final int DATE_VIEW_FORMAT_MDY = 2;
+        public static final int DATE_VIEW_FORMAT_DMY = DateMaskEngine.FORMAT_DMY;
+        public static final int DATE_VIEW_FORMAT_YMD = DateMaskEngine.FORMAT_YMD;
+        public static final int DATE_VIEW_FORMAT_MDY = DateMaskEngine.FORMAT_MDY;
 
-        public static final char DATE_SEPARATOR_DOT = '.';
-        public static final char DATE_SEPARATOR_SLASH = '/';
-        public static final char DATE_SEPARATOR_DASH = '-';
+        public static final char DATE_SEPARATOR_DOT = DateMaskEngine.SEPARATOR_DOT;
+        public static final char DATE_SEPARATOR_SLASH = DateMaskEngine.SEPARATOR_SLASH;
+        public static final char DATE_SEPARATOR_DASH = DateMaskEngine.SEPARATOR_DASH;
 
         public static final char DAY_PLACEHOLDER_EN = 'd';
         public static final char DAY_PLACEHOLDER_RU = 'д';
@@ -798,59 +1320,82 @@ public class EditDateView extends AppCompatEditText {
         public static final char YEAR_PLACEHOLDER_DE = 'j';
         public static final String ONLY_LETTERS_A_Z_A_Z_ARE_ALLOWED_FOR_A_PLACEHOLDER = "only letters (a-zA-Z) are allowed for a placeholder";
 
-        private static char dayPlaceholder;
-        private static char monthPlaceholder;
-        private static char yearPlaceholder;
-        private static char dateSeparator;
-        private static int dateViewFormat;
-
-        static {
-            Locale locale = Locale.getDefault();
-            switch (locale.getCountry()) {
-                case "RU":
-                    dayPlaceholder = DAY_PLACEHOLDER_RU;
-                    monthPlaceholder = MONTH_PLACEHOLDER_RU;
-                    yearPlaceholder = YEAR_PLACEHOLDER_RU;
-                    dateViewFormat = DATE_VIEW_FORMAT_DMY;
-                    dateSeparator = DATE_SEPARATOR_DOT;
-                    break;
-
-                case "DE":
-                    dayPlaceholder = DAY_PLACEHOLDER_DE;
-                    monthPlaceholder = MONTH_PLACEHOLDER_DE;
-                    yearPlaceholder = YEAR_PLACEHOLDER_DE;
-                    dateViewFormat = DATE_VIEW_FORMAT_DMY;
-                    dateSeparator = DATE_SEPARATOR_DOT;
-                    break;
-
-                default:
-                    dayPlaceholder = DAY_PLACEHOLDER_EN;
-                    monthPlaceholder = MONTH_PLACEHOLDER_EN;
-                    yearPlaceholder = YEAR_PLACEHOLDER_EN;
-                    dateViewFormat = DATE_VIEW_FORMAT_YMD;
-                    dateSeparator = DATE_SEPARATOR_DOT;
-                    break;
+        private static final char NOT_SET = 0;
+        private static final DateFormatSpec FIXED_SPEC = DateFormatSpec.of(DATE_VIEW_FORMAT_DMY, DATE_SEPARATOR_DOT,
+                DAY_PLACEHOLDER_EN, MONTH_PLACEHOLDER_EN, YEAR_PLACEHOLDER_EN);
+
+        private static volatile boolean useLocaleDefaults = false;
+        // explicit overrides, NOT_SET / -1 means "take it from the base spec"
+        private static volatile char dayPlaceholder = NOT_SET;
+        private static volatile char monthPlaceholder = NOT_SET;
+        private static volatile char yearPlaceholder = NOT_SET;
+        private static volatile char dateSeparator = NOT_SET;
+        private static volatile int dateViewFormat = -1;
+
+        /**
+         * @return {@code dd.mm.yyyy}, or the defaults of the current locale if
+         * {@link #setUseLocaleDefaults(boolean) enabled}, with the explicitly set values applied
+         */
+        public static DateFormatSpec getDefaultSpec() {
+            return getDefaultSpec(useLocaleDefaults);
+        }
+
+        static DateFormatSpec getDefaultSpec(boolean useLocaleDefaults) {
+            DateFormatSpec spec = useLocaleDefaults ? LocaleDefaults.resolve(Locale.getDefault()) : FIXED_SPEC;
+            if (dateViewFormat >= 0) {
+                spec = spec.withFormat(dateViewFormat);
+            }
+            if (dateSeparator != NOT_SET) {
+                spec = spec.withSeparator(dateSeparator);
+            }
+            if (dayPlaceholder != NOT_SET || monthPlaceholder != NOT_SET || yearPlaceholder != NOT_SET) {
+                spec = spec.withPlaceholders(
+                        dayPlaceholder != NOT_SET ? dayPlaceholder : spec.getDayPlaceholder(),
+                        monthPlaceholder != NOT_SET ? monthPlaceholder : spec.getMonthPlaceholder(),
+                        yearPlaceholder != NOT_SET ? yearPlaceholder : spec.getYearPlaceholder());
             }
+            return spec;
+        }
+
+        /**
+         * Derives the values that were not set explicitly from {@link Locale#getDefault()} (field
+         * order and separator of its short date pattern, placeholders of its language) instead of
+         * {@code dd.mm.yyyy}. Off by default, the {@code useLocaleDefaults} attribute enables it
+         * for a single view
+         */
+        public static void setUseLocaleDefaults(boolean useLocaleDefaults) {
+            DefaultSettings.useLocaleDefaults = useLocaleDefaults;
+        }
+
+        public static boolean isUseLocaleDefaults() {
+            return useLocaleDefaults;
+        }
+
+        /**
+         * Drops the cached locale defaults. Called by the view on a configuration change
+         */
+        public static void onConfigurationChanged() {
+            LocaleDefaults.invalidate();
         }
 
         public static char getDateSeparator() {
-            return dateSeparator;
+            return getDefaultSpec().getSeparator();
         }
 
         public static int getDateViewFormat() {
-            return dateViewFormat;
+            return getDefaultSpec().getFormat();
         }
 
         public static char getDayPlaceholder() {
-            return dayPlaceholder;
+            return getDefaultSpec().getDayPlaceholder();
         }
 
         public static char getMonthPlaceholder() {
-            return monthPlaceholder;
+            return getDefaultSpec().getMonthPlaceholder();
         }
 
         public static char getYearPlaceholder() {
-            return yearPlaceholder;
+            return getDefaultSpec().getYearPlaceholder();
         }
 
         public static void setDefaultDateSeparator(char dateSeparator) {
@@ -907,7 +1452,7 @@ public class EditDateView extends AppCompatEditText {
         }
 
         public static boolean validateSeparator(char separator) {
-            return separator == DATE_SEPARATOR_DOT || separator == DATE_SEPARATOR_SLASH || separator == DATE_SEPARATOR_DASH;
+            return DateMaskEngine.isSeparator(separator);
         }
 
         public static boolean validatePlaceholderChar(Character character) {
@@ -915,7 +1460,7 @@ public class EditDateView extends AppCompatEditText {
         }
 
         public static boolean validateDateViewFormat(int dateViewFormat) {
-            return dateViewFormat == DATE_VIEW_FORMAT_DMY || dateViewFormat == DATE_VIEW_FORMAT_YMD || dateViewFormat == DATE_VIEW_FORMAT_MDY;
+            return DateMaskEngine.isValidFormat(dateViewFormat);
         }
     }
 }
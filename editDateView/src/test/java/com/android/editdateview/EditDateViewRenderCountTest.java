@@ -0,0 +1,110 @@
+package com.android.editdateview;
+
+import android.text.Editable;
+import android.text.Selection;
+import android.view.ContextThemeWrapper;
+
+import com.android.editdateview.engine.InputMetrics;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.*;
+
+/**
+ * Render and notification counts of scripted input sequences, for every DATE_VIEW_FORMAT_*. The
+ * counts are exact, so both a regression and an unnoticed improvement fail.
+ * Allocation budgets of the same paths are checked in {@code DateMaskEngineAllocationTest}:
+ * under Robolectric the shadowed framework allocates by itself, so bytes are not comparable here.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class EditDateViewRenderCountTest {
+
+    private static final int[] FORMATS = {
+            EditDateView.DefaultSettings.DATE_VIEW_FORMAT_DMY,
+            EditDateView.DefaultSettings.DATE_VIEW_FORMAT_YMD,
+            EditDateView.DefaultSettings.DATE_VIEW_FORMAT_MDY
+    };
+    private static final String[] DIGITS = {"31122024", "20241231", "12312024"};
+    private static final String[] PASTES = {"31.12.2024", "2024.12.31", "12.31.2024"};
+
+    // counts per format: {renders, full rewrites, hint updates, notifications}
+    // typing notifies on the completed day, month and year; a paste is rendered by the filter result
+    private static final int[][] TYPING_BUDGET = {{8, 0, 0, 3}, {8, 0, 0, 3}, {8, 0, 0, 3}};
+    private static final int[][] PASTE_BUDGET = {{0, 0, 0, 1}, {0, 0, 0, 1}, {0, 0, 0, 1}};
+    private static final int[][] DELETE_BUDGET = {{1, 0, 0, 0}, {1, 0, 0, 0}, {1, 0, 0, 0}};
+
+    private final InputMetrics metrics = new InputMetrics();
+    private int notifications;
+
+    @Test
+    public void typing_staysWithinBudget() {
+        for (int i = 0; i < FORMATS.length; i++) {
+            EditDateView view = view(FORMATS[i]);
+            type(view, DIGITS[i]);
+            assertEquals(PASTES[i], view.getText().toString());
+            assertBudget("typing, format " + FORMATS[i], TYPING_BUDGET[i]);
+        }
+    }
+
+    @Test
+    public void paste_staysWithinBudget() {
+        for (int i = 0; i < FORMATS.length; i++) {
+            EditDateView view = view(FORMATS[i]);
+            Editable text = view.getText();
+            text.replace(0, text.length(), PASTES[i]);
+            assertEquals(PASTES[i], view.getText().toString());
+            assertBudget("paste, format " + FORMATS[i], PASTE_BUDGET[i]);
+        }
+    }
+
+    @Test
+    public void delete_staysWithinBudget() {
+        for (int i = 0; i < FORMATS.length; i++) {
+            EditDateView view = view(FORMATS[i]);
+            view.setDateStr(PASTES[i]);
+            reset();
+            view.getText().delete(3, 10);
+            assertBudget("delete, format " + FORMATS[i], DELETE_BUDGET[i]);
+        }
+    }
+
+    private EditDateView view(int format) {
+        ContextThemeWrapper context = new ContextThemeWrapper(RuntimeEnvironment.getApplication(),
+                androidx.appcompat.R.style.Theme_AppCompat);
+        EditDateView view = new EditDateView(context);
+        view.setDateViewFormat(format);
+        view.setDateSeparator(EditDateView.DefaultSettings.DATE_SEPARATOR_DOT);
+        view.setInputMetrics(metrics);
+        view.addOnDateChangeListener((day, month, year) -> notifications++);
+        reset();
+        return view;
+    }
+
+    private static void type(EditDateView view, String digits) {
+        for (int i = 0; i < digits.length(); i++) {
+            Editable text = view.getText();
+            int caret = Math.max(Selection.getSelectionEnd(text), 0);
+            text.replace(caret, caret, digits.substring(i, i + 1));
+        }
+    }
+
+    private void assertBudget(String name, int[] budget) {
+        InputMetrics.Snapshot snapshot = metrics.snapshot();
+        assertBudget(name + " renders", budget[0], snapshot.getCount(InputMetrics.RENDERS));
+        assertBudget(name + " full rewrites", budget[1], snapshot.getCount(InputMetrics.FULL_REWRITES));
+        assertBudget(name + " hint updates", budget[2], snapshot.getCount(InputMetrics.HINT_UPDATES));
+        assertBudget(name + " notifications", budget[3], notifications);
+    }
+
+    private static void assertBudget(String name, long budget, long actual) {
+        assertEquals(name, budget, actual);
+    }
+
+    private void reset() {
+        metrics.reset();
+        notifications = 0;
+    }
+}
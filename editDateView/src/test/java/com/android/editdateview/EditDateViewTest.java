@@ -0,0 +1,187 @@
+package com.android.editdateview;
+
+import android.app.Activity;
+import android.text.Editable;
+import android.view.ContextThemeWrapper;
+import android.view.KeyEvent;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+
+import com.android.editdateview.engine.PackedDate;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+public class EditDateViewTest {
+
+    @Test
+    public void constructors_createEmptyView() {
+        EditDateView fromCode = new EditDateView(context());
+        EditDateView inflated = new EditDateView(context(), Robolectric.buildAttributeSet().build());
+        for (EditDateView view : new EditDateView[]{fromCode, inflated}) {
+            assertNotNull(view.onCreateInputConnection(new EditorInfo()));
+            assertTrue(view.getText() instanceof Editable);
+            assertEquals("", view.getText().toString());
+            assertEquals(0, view.getDay());
+            assertTrue(view.setDateStr("2024-12-31"));
+            assertEquals(31, view.getDay());
+        }
+    }
+
+    @Test
+    public void defaultSpec_usesLocaleOnlyWhenEnabled() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.US);
+            assertEquals("dd.mm.yyyy", new EditDateView(context()).getDateFormatSpec().getHint());
+            EditDateView.DefaultSettings.setUseLocaleDefaults(true);
+            assertEquals(EditDateView.DefaultSettings.DATE_VIEW_FORMAT_MDY, new EditDateView(context()).getDateFormatSpec().getFormat());
+        } finally {
+            EditDateView.DefaultSettings.setUseLocaleDefaults(false);
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void inputConnection_appliesCommitsOfOneBatchInOrder() {
+        EditDateView view = new EditDateView(context());
+        view.setDateViewFormat(EditDateView.DefaultSettings.DATE_VIEW_FORMAT_DMY);
+        view.setDateSeparator(EditDateView.DefaultSettings.DATE_SEPARATOR_DOT);
+        InputConnection connection = view.onCreateInputConnection(new EditorInfo());
+        // IMEs send composed input as several commits inside one batch edit
+        connection.beginBatchEdit();
+        connection.commitText("1", 1);
+        connection.commitText("5", 1);
+        connection.commitText("1", 1);
+        connection.endBatchEdit();
+        assertEquals(4, view.getSelectionEnd());
+
+        connection.beginBatchEdit();
+        connection.deleteSurroundingText(1, 0);
+        connection.commitText("0", 1);
+        connection.commitText("2", 1);
+        connection.commitText("2024", 1);
+        connection.endBatchEdit();
+        assertEquals("15.02.2024", view.getText().toString());
+        assertEquals(20240215, view.getPackedYmd());
+    }
+
+    @Test
+    public void inputConnection_commitReplacesComposedText() {
+        EditDateView view = new EditDateView(context());
+        view.setDateViewFormat(EditDateView.DefaultSettings.DATE_VIEW_FORMAT_DMY);
+        view.setDateSeparator(EditDateView.DefaultSettings.DATE_SEPARATOR_DOT);
+        InputConnection connection = view.onCreateInputConnection(new EditorInfo());
+        connection.setComposingText("1", 1);
+        connection.setComposingText("15", 1);
+        assertEquals(3, view.getSelectionEnd());
+        connection.commitText("15", 1);
+        assertEquals(3, view.getSelectionEnd());
+
+        connection.beginBatchEdit();
+        connection.setComposingText("0", 1);
+        connection.setComposingText("02", 1);
+        connection.commitText("02", 1);
+        connection.commitText("2024", 1);
+        connection.endBatchEdit();
+        assertEquals("15.02.2024", view.getText().toString());
+    }
+
+    @Test
+    public void paste_reportsDateOnceTextIsUpdated() {
+        EditDateView view = new EditDateView(context());
+        view.setDateViewFormat(EditDateView.DefaultSettings.DATE_VIEW_FORMAT_DMY);
+        view.setDateSeparator(EditDateView.DefaultSettings.DATE_SEPARATOR_DOT);
+        String[] reported = new String[1];
+        view.addOnDateChangeListener((day, month, year) -> reported[0] = view.getText().toString());
+        Editable text = view.getText();
+        text.replace(0, text.length(), "05/06/2021");
+        assertEquals("05.06.2021", reported[0]);
+    }
+
+    @Test
+    public void bind_dropsBufferedBurstKeys() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        EditDateView view = new EditDateView(activity);
+        activity.setContentView(view);
+        view.setBurstMode(50, KeyEvent.KEYCODE_UNKNOWN);
+        key(view, KeyEvent.KEYCODE_1, 0);
+        key(view, KeyEvent.KEYCODE_5, 5);
+        key(view, KeyEvent.KEYCODE_0, 10);
+        int[] notifications = new int[1];
+        // the keys were typed for the previous binding
+        view.bind(PackedDate.NONE, null, (day, month, year) -> notifications[0]++);
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+        assertEquals("", view.getText().toString());
+        assertEquals(0, view.getDay());
+        assertEquals(0, notifications[0]);
+    }
+
+    @Test
+    public void burstMode_buffersOnlyFastKeys() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        EditDateView view = new EditDateView(activity);
+        activity.setContentView(view);
+        view.setDateViewFormat(EditDateView.DefaultSettings.DATE_VIEW_FORMAT_DMY);
+        view.setDateSeparator(EditDateView.DefaultSettings.DATE_SEPARATOR_DOT);
+        view.setBurstMode(50, KeyEvent.KEYCODE_ENTER);
+        // typed by hand: every key is applied at once
+        key(view, KeyEvent.KEYCODE_1, 0);
+        assertEquals(1, view.getSelectionEnd());
+        key(view, KeyEvent.KEYCODE_5, 200);
+        assertEquals(3, view.getSelectionEnd());
+
+        // scanned: the first key is applied, the following ones wait for the terminator
+        int[] notifications = new int[1];
+        view.addOnDateChangeListener((day, month, year) -> notifications[0]++);
+        key(view, KeyEvent.KEYCODE_0, 1000);
+        assertEquals(4, view.getSelectionEnd());
+        key(view, KeyEvent.KEYCODE_2, 1005);
+        key(view, KeyEvent.KEYCODE_2, 1010);
+        key(view, KeyEvent.KEYCODE_0, 1015);
+        key(view, KeyEvent.KEYCODE_2, 1020);
+        key(view, KeyEvent.KEYCODE_4, 1025);
+        assertEquals(4, view.getSelectionEnd());
+        assertEquals(0, view.getYear());
+        key(view, KeyEvent.KEYCODE_ENTER, 1030);
+        assertEquals("15.02.2024", view.getText().toString());
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+        assertEquals(1, notifications[0]);
+    }
+
+    @Test
+    public void bind_clearsBoundsOfPreviousBinding() {
+        EditDateView view = new EditDateView(context());
+        view.bind(20240315, null, 20240101, 20240630, null, null);
+        assertEquals(20240315, view.getPackedYmd());
+        assertEquals(20240101, view.getMinDate());
+
+        view.bind(20241231, null, null);
+        assertEquals(20241231, view.getPackedYmd());
+        assertEquals(PackedDate.NONE, view.getMinDate());
+        assertEquals(PackedDate.NONE, view.getMaxDate());
+
+        int[] notifications = new int[1];
+        view.bind(20250101, null, PackedDate.NONE, 20240630, null, (day, month, year) -> notifications[0]++);
+        assertEquals(20240630, view.getPackedYmd());
+        assertEquals(0, notifications[0]);
+    }
+
+    private static void key(EditDateView view, int keyCode, long eventTime) {
+        view.onKeyDown(keyCode, new KeyEvent(0, eventTime, KeyEvent.ACTION_DOWN, keyCode, 0));
+    }
+
+    private static ContextThemeWrapper context() {
+        return new ContextThemeWrapper(RuntimeEnvironment.getApplication(), androidx.appcompat.R.style.Theme_AppCompat);
+    }
+}
@@ -22,4 +22,6 @@ dependencyResolutionManagement {
 rootProject.name = "editDateView"
 //include(":app")
 include(":editDateView")
+include(":dateMaskEngine")
+include(":benchmark")
 include(":demo")